@@ -14,11 +14,16 @@ android {
         versionName = "1.0"
 
         testInstrumentationRunner = "androidx.test.runner.AndroidJUnitRunner"
+
+        // عنوان خادم الأوقات: Aladhan افتراضياً، أو خادم :server الخاص بنا
+        // ./gradlew assembleRelease -PprayerTimesBaseUrl=http://10.0.0.5:8080/v1/
+        val baseUrl = (project.findProperty("prayerTimesBaseUrl") as String?) ?: "http://api.aladhan.com/v1/"
+        buildConfigField("String", "PRAYER_TIMES_BASE_URL", "\"$baseUrl\"")
     }
 
     buildTypes {
         release {
-            isMinifyEnabled = false
+            isMinifyEnabled = true
             proguardFiles(getDefaultProguardFile("proguard-android-optimize.txt"), "proguard-rules.pro")
         }
     }
@@ -30,6 +35,7 @@ android {
 
     buildFeatures {
         viewBinding = true
+        buildConfig = true
     }
 
     // إزالة التحذيرات المزعجة للتطوير
@@ -41,6 +47,8 @@ android {
 }
 
 dependencies {
+    implementation(project(":core"))
+
     implementation("androidx.appcompat:appcompat:1.7.0")
     implementation("com.google.android.material:material:1.12.0")
     implementation("androidx.constraintlayout:constraintlayout:2.1.4")
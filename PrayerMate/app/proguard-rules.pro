@@ -18,4 +18,7 @@
 
 # If you keep the line number information, uncomment this to
 # hide the original source file name.
-#-renamesourcefileattribute SourceFile
\ No newline at end of file
+#-renamesourcefileattribute SourceFile
+# Aladhan responses are decoded by the hand-written streaming adapters in
+# PrayerTimesJsonAdapters, so the response models need no keep rules.
+# Retrofit, OkHttp and Gson ship their own consumer rules.
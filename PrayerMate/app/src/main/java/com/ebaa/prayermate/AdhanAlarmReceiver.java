@@ -0,0 +1,86 @@
+package com.ebaa.prayermate;
+
+import android.app.NotificationChannel;
+import android.app.NotificationManager;
+import android.app.PendingIntent;
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import android.os.Build;
+
+import androidx.core.app.NotificationCompat;
+import androidx.core.app.NotificationManagerCompat;
+
+/**
+ * يستقبل منبهات الأذان ويعرض الإشعار مباشرة بدون فتح النشاط أو استخدام الشبكة،
+ * ويعيد الجدولة عند إعادة تشغيل الجهاز أو تغيير الوقت/المنطقة الزمنية.
+ */
+public class AdhanAlarmReceiver extends BroadcastReceiver {
+
+    private static final String CHANNEL_ID = "adhan";
+    private static final String[] PRAYER_NAMES = {"الفجر", "الشروق", "الظهر", "العصر", "المغرب", "العشاء"};
+
+    @Override
+    public void onReceive(Context context, Intent intent) {
+        String action = intent.getAction();
+        if (action == null) return;
+
+        try {
+            if (AdhanAlarmScheduler.ACTION_ADHAN.equals(action)) {
+                showAdhanNotification(context, intent.getIntExtra(AdhanAlarmScheduler.EXTRA_PRAYER,
+                        PrayerTimesCalculator.FAJR));
+                return;
+            }
+
+            switch (action) {
+                case Intent.ACTION_BOOT_COMPLETED:
+                case Intent.ACTION_MY_PACKAGE_REPLACED:
+                case Intent.ACTION_TIMEZONE_CHANGED:
+                case Intent.ACTION_TIME_CHANGED:
+                case AdhanAlarmScheduler.ACTION_RESCHEDULE:
+                    PendingResult result = goAsync();
+                    AdhanAlarmScheduler.scheduleAsync(context, result::finish);
+                    break;
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+
+    private void showAdhanNotification(Context context, int prayer) {
+        createChannel(context);
+
+        Intent openApp = new Intent(context, MainActivity.class)
+                .setFlags(Intent.FLAG_ACTIVITY_NEW_TASK | Intent.FLAG_ACTIVITY_CLEAR_TOP);
+        PendingIntent contentIntent = PendingIntent.getActivity(context, 0, openApp,
+                PendingIntent.FLAG_UPDATE_CURRENT | PendingIntent.FLAG_IMMUTABLE);
+
+        NotificationCompat.Builder builder = new NotificationCompat.Builder(context, CHANNEL_ID)
+                .setSmallIcon(R.drawable.ic_mosque)
+                .setContentTitle("🕌 حان الآن موعد صلاة " + PRAYER_NAMES[prayer])
+                .setContentText(context.getString(R.string.app_name))
+                .setCategory(NotificationCompat.CATEGORY_ALARM)
+                .setPriority(NotificationCompat.PRIORITY_HIGH)
+                .setContentIntent(contentIntent)
+                .setAutoCancel(true);
+
+        try {
+            NotificationManagerCompat.from(context).notify(prayer, builder.build());
+        } catch (SecurityException e) {
+            // لم يتم منح إذن الإشعارات (Android 13+)
+            e.printStackTrace();
+        }
+    }
+
+    private void createChannel(Context context) {
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.O) return;
+
+        NotificationManager manager = context.getSystemService(NotificationManager.class);
+        if (manager != null && manager.getNotificationChannel(CHANNEL_ID) == null) {
+            NotificationChannel channel = new NotificationChannel(CHANNEL_ID, "الأذان",
+                    NotificationManager.IMPORTANCE_HIGH);
+            channel.setDescription("تنبيه عند دخول وقت كل صلاة");
+            manager.createNotificationChannel(channel);
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.ebaa.prayermate;
+
+import android.app.AlarmManager;
+import android.app.PendingIntent;
+import android.content.Context;
+import android.content.Intent;
+import android.os.Build;
+
+import java.util.Calendar;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * جدولة منبهات الأذان لشهر قادم دفعة واحدة من الجدول المخزن، مع إعادة الجدولة
+ * مرة واحدة يومياً وعند إعادة التشغيل أو تغيير المنطقة الزمنية.
+ * لا توجد خدمة دائمة ولا wakelock: AlarmManager يوقظ AdhanAlarmReceiver فقط.
+ */
+public class AdhanAlarmScheduler {
+
+    static final String ACTION_ADHAN = "com.ebaa.prayermate.ACTION_ADHAN";
+    static final String ACTION_RESCHEDULE = "com.ebaa.prayermate.ACTION_RESCHEDULE";
+    static final String EXTRA_PRAYER = "prayer";
+
+    // نافذة الجدولة (5 صلوات × 30 يوم = 150 منبه، أقل من حد النظام 500)
+    private static final int WINDOW_DAYS = 30;
+    // أكواد الطلب تتكرر كل 64 يوماً، وهذا أكبر من النافذة فلا يحدث تصادم
+    private static final int REQUEST_CODE_DAYS = 64;
+    private static final int RESCHEDULE_REQUEST_CODE = -1;
+
+    private static final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+    private AdhanAlarmScheduler() {
+    }
+
+    /**
+     * إعادة الجدولة على خيط خلفي (قراءة قاعدة البيانات)
+     *
+     * @param onDone يُستدعى بعد الانتهاء (يمكن أن يكون null)
+     */
+    public static void scheduleAsync(Context context, Runnable onDone) {
+        Context appContext = context.getApplicationContext();
+        executor.execute(() -> {
+            try {
+                schedule(appContext);
+            } catch (Exception e) {
+                e.printStackTrace();
+            } finally {
+                if (onDone != null) {
+                    onDone.run();
+                }
+            }
+        });
+    }
+
+    private static void schedule(Context context) {
+        LastLocation location = LastLocation.load(context);
+        AlarmManager alarmManager = (AlarmManager) context.getSystemService(Context.ALARM_SERVICE);
+        if (location == null || alarmManager == null) {
+            return;
+        }
+
+        Calendar calendar = Calendar.getInstance();
+        long today = DayTimings.epochDay(calendar.get(Calendar.YEAR), calendar.get(Calendar.MONTH) + 1,
+                calendar.get(Calendar.DAY_OF_MONTH));
+
+        List<DayTimings> stored = TimetableStore.getInstance(context).getDays(
+                TimetableStore.cellKey(location.getLatitude(), location.getLongitude()), today, WINDOW_DAYS);
+
+        boolean exact = Build.VERSION.SDK_INT < Build.VERSION_CODES.S || alarmManager.canScheduleExactAlarms();
+        PrayerTimesCalculator calculator = PrayerTimesCalculator.egyptian();
+        long now = System.currentTimeMillis();
+        int storedIndex = 0;
+
+        for (long epochDay = today; epochDay < today + WINDOW_DAYS; epochDay++) {
+            DayTimings day;
+            if (storedIndex < stored.size() && stored.get(storedIndex).getEpochDay() == epochDay) {
+                day = stored.get(storedIndex++);
+            } else {
+                // اليوم غير مخزن: حساب محلي بدون شبكة
+                day = calculator.computeDay(location.getLatitude(), location.getLongitude(),
+                        epochDay, DayTimings.localUtcOffsetMinutes(epochDay));
+            }
+
+            for (int prayer = 0; prayer < day.size(); prayer++) {
+                if (prayer == PrayerTimesCalculator.SUNRISE) continue;
+
+                long triggerAt = day.getEpochMillis(prayer);
+                if (triggerAt <= now) continue;
+
+                Intent intent = new Intent(context, AdhanAlarmReceiver.class)
+                        .setAction(ACTION_ADHAN)
+                        .putExtra(EXTRA_PRAYER, prayer);
+                PendingIntent pendingIntent = PendingIntent.getBroadcast(context,
+                        requestCode(epochDay, prayer), intent,
+                        PendingIntent.FLAG_UPDATE_CURRENT | PendingIntent.FLAG_IMMUTABLE);
+
+                if (exact) {
+                    alarmManager.setExactAndAllowWhileIdle(AlarmManager.RTC_WAKEUP, triggerAt, pendingIntent);
+                } else {
+                    alarmManager.setAndAllowWhileIdle(AlarmManager.RTC_WAKEUP, triggerAt, pendingIntent);
+                }
+            }
+        }
+
+        scheduleDailyPass(context, alarmManager);
+    }
+
+    // تمرير واحد يومياً بعد منتصف الليل لتمديد النافذة يوماً إضافياً
+    private static void scheduleDailyPass(Context context, AlarmManager alarmManager) {
+        Calendar next = Calendar.getInstance();
+        next.add(Calendar.DAY_OF_MONTH, 1);
+        next.set(Calendar.HOUR_OF_DAY, 0);
+        next.set(Calendar.MINUTE, 5);
+        next.set(Calendar.SECOND, 0);
+
+        Intent intent = new Intent(context, AdhanAlarmReceiver.class).setAction(ACTION_RESCHEDULE);
+        PendingIntent pendingIntent = PendingIntent.getBroadcast(context, RESCHEDULE_REQUEST_CODE, intent,
+                PendingIntent.FLAG_UPDATE_CURRENT | PendingIntent.FLAG_IMMUTABLE);
+        alarmManager.set(AlarmManager.RTC, next.getTimeInMillis(), pendingIntent);
+    }
+
+    private static int requestCode(long epochDay, int prayer) {
+        return (int) (Math.floorMod(epochDay, REQUEST_CODE_DAYS) * PrayerTimesCalculator.PRAYER_COUNT + prayer);
+    }
+}
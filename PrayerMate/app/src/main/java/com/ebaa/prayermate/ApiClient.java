@@ -1,29 +1,98 @@
 package com.ebaa.prayermate;
 
+import android.content.Context;
+
+import com.google.gson.GsonBuilder;
+
+import java.io.File;
+
+import okhttp3.Cache;
+import okhttp3.Interceptor;
 import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
 import okhttp3.logging.HttpLoggingInterceptor;
 import retrofit2.Retrofit;
 import retrofit2.converter.gson.GsonConverterFactory;
 
 public class ApiClient {
-    private static final String BASE_URL = "http://api.aladhan.com/v1/";
+    // Aladhan أو خادم :server (نفس المسارات وشكل الاستجابة)، يُحدد وقت البناء
+    private static final String BASE_URL = BuildConfig.PRAYER_TIMES_BASE_URL;
+    private static final long CACHE_SIZE = 5L * 1024 * 1024; // 5 MB
+
+    // أوقات تاريخ وموقع محددين لا تتغير، لذلك يمكن إعادة استخدامها لمدة طويلة
+    private static final int IMMUTABLE_MAX_AGE = 30 * 24 * 60 * 60;
+
     private static Retrofit retrofit = null;
+    private static Cache cache = null;
 
-    public static Retrofit getClient() {
+    public static synchronized Retrofit getClient(Context context) {
         if (retrofit == null) {
             HttpLoggingInterceptor interceptor = new HttpLoggingInterceptor();
             interceptor.setLevel(HttpLoggingInterceptor.Level.BODY);
 
+            cache = new Cache(new File(context.getApplicationContext().getCacheDir(), "http"), CACHE_SIZE);
+
             OkHttpClient client = new OkHttpClient.Builder()
+                    .cache(cache)
                     .addInterceptor(interceptor)
+                    .addNetworkInterceptor(new ImmutableTimingsInterceptor())
                     .build();
 
             retrofit = new Retrofit.Builder()
                     .baseUrl(BASE_URL)
                     .client(client)
-                    .addConverterFactory(GsonConverterFactory.create())
+                    .addConverterFactory(GsonConverterFactory.create(
+                            PrayerTimesJsonAdapters.register(new GsonBuilder()).create()))
                     .build();
         }
         return retrofit;
     }
-}
\ No newline at end of file
+
+    /**
+     * Aladhan يرسل Cache-Control يمنع التخزين، لكن نتيجة calendar لشهر محدد
+     * ثابتة لنفس الإحداثيات. نعيد كتابة الترويسة حتى
+     * يخدم OkHttp الطلبات المكررة من القرص بدون أي بايت على الشبكة، مع الإبقاء
+     * على ETag و Last-Modified ليتم التحقق الشرطي (304) بعد انتهاء الصلاحية.
+     */
+    private static class ImmutableTimingsInterceptor implements Interceptor {
+        @Override
+        public Response intercept(Chain chain) throws java.io.IOException {
+            Request request = chain.request();
+            Response response = chain.proceed(request);
+
+            if (!response.isSuccessful() || !isDatedTimingsRequest(request)) {
+                return response;
+            }
+
+            return response.newBuilder()
+                    .removeHeader("Pragma")
+                    .removeHeader("Expires")
+                    .header("Cache-Control", "public, max-age=" + IMMUTABLE_MAX_AGE)
+                    .build();
+        }
+
+        private boolean isDatedTimingsRequest(Request request) {
+            return request.url().encodedPath().endsWith("/calendar")
+                    && request.url().queryParameter("year") != null;
+        }
+    }
+
+    // إحصائيات ذاكرة التخزين المؤقت للمراقبة (قراءة فقط، 0 قبل أول getClient)
+
+    public static int getCacheHitCount() {
+        return cache != null ? cache.hitCount() : 0;
+    }
+
+    public static int getNetworkCount() {
+        return cache != null ? cache.networkCount() : 0;
+    }
+
+    public static int getRequestCount() {
+        return cache != null ? cache.requestCount() : 0;
+    }
+
+    public static int getCacheMissCount() {
+        return getRequestCount() - getCacheHitCount();
+    }
+}
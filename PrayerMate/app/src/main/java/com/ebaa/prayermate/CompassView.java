@@ -0,0 +1,162 @@
+package com.ebaa.prayermate;
+
+import android.content.Context;
+import android.graphics.Canvas;
+import android.graphics.drawable.Drawable;
+import android.util.AttributeSet;
+import android.view.Choreographer;
+import android.view.View;
+
+import androidx.annotation.Nullable;
+import androidx.core.content.ContextCompat;
+
+/**
+ * بوصلة القبلة مرسومة مباشرة على Canvas: القرص يدور عكس الاتجاه الحالي
+ * وسهم القبلة يدور بزاوية (القبلة - الاتجاه).
+ * الدوران يتبع آخر اتجاه بزنبرك مخمد حرجاً يُحدّث مع كل إطار من Choreographer،
+ * فلا توجد كائنات Animation ولا إعادة تشغيل لها عند وصول قراءة جديدة.
+ */
+public class CompassView extends View implements Choreographer.FrameCallback {
+
+    // تردد الزنبرك الطبيعي (rad/s): زمن الاستقرار تقريباً 4 / OMEGA ثانية
+    private static final float OMEGA = 14f;
+    private static final float MAX_FRAME_SECONDS = 0.05f;
+    private static final float REST_ANGLE = 0.05f;
+    private static final float REST_VELOCITY = 0.5f;
+
+    // نسبة حجم السهم للقرص كما في التصميم الأصلي (200dp / 240dp)
+    private static final float ARROW_SCALE = 200f / 240f;
+
+    private final Drawable dial;
+    private final Drawable arrow;
+
+    private float targetHeading;
+    private float displayedHeading;
+    private float velocity;
+    private float qiblaDirection;
+
+    private boolean frameScheduled;
+    private long lastFrameNanos;
+
+    public CompassView(Context context) {
+        this(context, null);
+    }
+
+    public CompassView(Context context, @Nullable AttributeSet attrs) {
+        super(context, attrs);
+        dial = ContextCompat.getDrawable(context, R.drawable.compass_bg);
+        arrow = ContextCompat.getDrawable(context, R.drawable.qibla_arrow);
+    }
+
+    /**
+     * الاتجاه الجديد بالدرجات؛ العرض يتحرك نحوه بسلاسة
+     */
+    public void setHeading(float heading) {
+        targetHeading = heading;
+        scheduleFrame();
+    }
+
+    /**
+     * وضع الاتجاه مباشرة بدون حركة (مثلاً عند استعادة آخر اتجاه محفوظ)
+     */
+    public void snapToHeading(float heading) {
+        targetHeading = heading;
+        displayedHeading = heading;
+        velocity = 0f;
+        invalidate();
+    }
+
+    public void setQiblaDirection(float direction) {
+        qiblaDirection = direction;
+        invalidate();
+    }
+
+    private void scheduleFrame() {
+        if (!frameScheduled && isAttachedToWindow()) {
+            frameScheduled = true;
+            lastFrameNanos = 0;
+            Choreographer.getInstance().postFrameCallback(this);
+        }
+    }
+
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        frameScheduled = false;
+
+        float dt = lastFrameNanos == 0 ? 0.016f : (frameTimeNanos - lastFrameNanos) / 1e9f;
+        dt = Math.min(dt, MAX_FRAME_SECONDS);
+        lastFrameNanos = frameTimeNanos;
+
+        // الخطأ عبر أقصر طريق حول الدائرة
+        float error = targetHeading - displayedHeading;
+        error -= 360f * Math.round(error / 360f);
+
+        // زنبرك مخمد حرجاً: a = ω²·e - 2ω·v (بدون تجاوز للهدف)
+        float acceleration = OMEGA * OMEGA * error - 2f * OMEGA * velocity;
+        velocity += acceleration * dt;
+        displayedHeading += velocity * dt;
+        displayedHeading -= 360f * (float) Math.floor(displayedHeading / 360f);
+
+        if (Math.abs(error) < REST_ANGLE && Math.abs(velocity) < REST_VELOCITY) {
+            displayedHeading = targetHeading;
+            velocity = 0f;
+        } else {
+            frameScheduled = true;
+            Choreographer.getInstance().postFrameCallback(this);
+        }
+        invalidate();
+    }
+
+    @Override
+    protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+        super.onSizeChanged(w, h, oldw, oldh);
+        int size = Math.min(w, h);
+        int left = (w - size) / 2;
+        int top = (h - size) / 2;
+        if (dial != null) {
+            dial.setBounds(left, top, left + size, top + size);
+        }
+        if (arrow != null) {
+            int arrowSize = Math.round(size * ARROW_SCALE);
+            int arrowLeft = (w - arrowSize) / 2;
+            int arrowTop = (h - arrowSize) / 2;
+            arrow.setBounds(arrowLeft, arrowTop, arrowLeft + arrowSize, arrowTop + arrowSize);
+        }
+    }
+
+    @Override
+    protected void onDraw(Canvas canvas) {
+        super.onDraw(canvas);
+        float cx = getWidth() / 2f;
+        float cy = getHeight() / 2f;
+
+        if (dial != null) {
+            int save = canvas.save();
+            canvas.rotate(-displayedHeading, cx, cy);
+            dial.draw(canvas);
+            canvas.restoreToCount(save);
+        }
+
+        if (arrow != null) {
+            int save = canvas.save();
+            canvas.rotate(qiblaDirection - displayedHeading, cx, cy);
+            arrow.draw(canvas);
+            canvas.restoreToCount(save);
+        }
+    }
+
+    @Override
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+        if (targetHeading != displayedHeading) {
+            scheduleFrame();
+        }
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        Choreographer.getInstance().removeFrameCallback(this);
+        frameScheduled = false;
+        super.onDetachedFromWindow();
+    }
+}
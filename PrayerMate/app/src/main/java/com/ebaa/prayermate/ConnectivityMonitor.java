@@ -0,0 +1,201 @@
+package com.ebaa.prayermate;
+
+import android.content.Context;
+import android.net.ConnectivityManager;
+import android.net.Network;
+import android.net.NetworkCapabilities;
+import android.os.Handler;
+import android.os.Looper;
+
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * مراقب واحد للاتصال على مستوى التطبيق مبني على registerDefaultNetworkCallback
+ * بدلاً من بث CONNECTIVITY_ACTION. الحالة (متصل، تم التحقق من الإنترنت، شبكة
+ * محدودة البيانات، نوع الشبكة) تُحدّث من callbacks النظام، ولا تصل للمشتركين
+ * إلا بعد أن تستقر لمدة DEBOUNCE_MS، فانقطاع قصير ثم عودة لا يسببان أي تحديث.
+ */
+public class ConnectivityMonitor {
+
+    public static final int TRANSPORT_NONE = 0;
+    public static final int TRANSPORT_WIFI = 1;
+    public static final int TRANSPORT_CELLULAR = 2;
+    public static final int TRANSPORT_ETHERNET = 3;
+    public static final int TRANSPORT_OTHER = 4;
+
+    private static final long DEBOUNCE_MS = 1500;
+
+    /**
+     * لقطة ثابتة لحالة الشبكة الافتراضية
+     */
+    public static final class State {
+        static final State OFFLINE = new State(false, false, false, TRANSPORT_NONE);
+
+        private final boolean connected;
+        private final boolean validated;
+        private final boolean metered;
+        private final int transport;
+
+        State(boolean connected, boolean validated, boolean metered, int transport) {
+            this.connected = connected;
+            this.validated = validated;
+            this.metered = metered;
+            this.transport = transport;
+        }
+
+        public boolean isConnected() {
+            return connected;
+        }
+
+        /**
+         * النظام تحقق من وصول الشبكة للإنترنت (ليست بوابة دخول captive portal)
+         */
+        public boolean isValidated() {
+            return validated;
+        }
+
+        public boolean isMetered() {
+            return metered;
+        }
+
+        public int getTransport() {
+            return transport;
+        }
+
+        /**
+         * هل يستحق إرسال طلب شبكة الآن؟
+         */
+        public boolean isOnline() {
+            return connected && validated;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof State)) return false;
+            State other = (State) o;
+            return connected == other.connected && validated == other.validated
+                    && metered == other.metered && transport == other.transport;
+        }
+
+        @Override
+        public int hashCode() {
+            return (connected ? 1 : 0) | (validated ? 2 : 0) | (metered ? 4 : 0) | (transport << 3);
+        }
+    }
+
+    public interface Listener {
+        /**
+         * تُستدعى على الخيط الرئيسي عند تغير الحالة المستقرة فقط
+         */
+        void onConnectivityChanged(State state);
+    }
+
+    private static ConnectivityMonitor instance;
+
+    private final ConnectivityManager connectivityManager;
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final CopyOnWriteArrayList<Listener> listeners = new CopyOnWriteArrayList<>();
+
+    // آخر ما أبلغ به النظام وآخر حالة مستقرة وصلت للمشتركين
+    private volatile State latest;
+    private volatile State published;
+
+    private final Runnable publishRunnable = this::publish;
+
+    public static synchronized ConnectivityMonitor getInstance(Context context) {
+        if (instance == null) {
+            instance = new ConnectivityMonitor(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    private ConnectivityMonitor(Context context) {
+        connectivityManager = (ConnectivityManager) context.getSystemService(Context.CONNECTIVITY_SERVICE);
+
+        // الحالة الأولية متاحة فوراً حتى قبل أول callback
+        State initial = State.OFFLINE;
+        try {
+            if (connectivityManager != null) {
+                Network network = connectivityManager.getActiveNetwork();
+                if (network != null) {
+                    initial = toState(connectivityManager.getNetworkCapabilities(network));
+                }
+                // نسخة registerDefaultNetworkCallback التي تأخذ Handler تحتاج API 26، لذلك
+                // الإشعارات تصل على خيط النظام وتُنقل للخيط الرئيسي بـ post
+                ConnectivityManager.NetworkCallback callback = new ConnectivityManager.NetworkCallback() {
+                    @Override
+                    public void onCapabilitiesChanged(Network network, NetworkCapabilities capabilities) {
+                        State state = toState(capabilities);
+                        handler.post(() -> update(state));
+                    }
+
+                    @Override
+                    public void onLost(Network network) {
+                        handler.post(() -> update(State.OFFLINE));
+                    }
+                };
+                connectivityManager.registerDefaultNetworkCallback(callback);
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        latest = initial;
+        published = initial;
+    }
+
+    public State getState() {
+        return published;
+    }
+
+    public void addListener(Listener listener) {
+        listeners.addIfAbsent(listener);
+    }
+
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    private void update(State state) {
+        latest = state;
+        // كل تغيير يؤجل النشر من جديد، فالتذبذب السريع ينتهي بنشر واحد أو لا شيء
+        handler.removeCallbacks(publishRunnable);
+        handler.postDelayed(publishRunnable, DEBOUNCE_MS);
+    }
+
+    private void publish() {
+        State state = latest;
+        if (state.equals(published)) {
+            return;
+        }
+        published = state;
+        for (Listener listener : listeners) {
+            try {
+                listener.onConnectivityChanged(state);
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    private static State toState(NetworkCapabilities capabilities) {
+        if (capabilities == null) {
+            return State.OFFLINE;
+        }
+        boolean internet = capabilities.hasCapability(NetworkCapabilities.NET_CAPABILITY_INTERNET);
+        boolean validated = capabilities.hasCapability(NetworkCapabilities.NET_CAPABILITY_VALIDATED);
+        boolean metered = !capabilities.hasCapability(NetworkCapabilities.NET_CAPABILITY_NOT_METERED);
+
+        int transport;
+        if (capabilities.hasTransport(NetworkCapabilities.TRANSPORT_WIFI)) {
+            transport = TRANSPORT_WIFI;
+        } else if (capabilities.hasTransport(NetworkCapabilities.TRANSPORT_CELLULAR)) {
+            transport = TRANSPORT_CELLULAR;
+        } else if (capabilities.hasTransport(NetworkCapabilities.TRANSPORT_ETHERNET)) {
+            transport = TRANSPORT_ETHERNET;
+        } else {
+            transport = TRANSPORT_OTHER;
+        }
+        return new State(internet, validated, metered, transport);
+    }
+}
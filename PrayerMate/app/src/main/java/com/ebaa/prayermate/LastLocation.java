@@ -0,0 +1,49 @@
+package com.ebaa.prayermate;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+
+/**
+ * آخر إحداثيات معروفة محفوظة في SharedPreferences("location")
+ * حتى تعمل الواجهة والمنبهات بدون انتظار تحديد الموقع
+ */
+public class LastLocation {
+
+    private static final String PREFS_NAME = "location";
+
+    private final double latitude;
+    private final double longitude;
+
+    public LastLocation(double latitude, double longitude) {
+        this.latitude = latitude;
+        this.longitude = longitude;
+    }
+
+    public double getLatitude() {
+        return latitude;
+    }
+
+    public double getLongitude() {
+        return longitude;
+    }
+
+    /**
+     * @return آخر موقع محفوظ أو null إذا لم يتم تحديد الموقع من قبل
+     */
+    public static LastLocation load(Context context) {
+        SharedPreferences prefs = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+        if (!prefs.contains("last_latitude")) {
+            return null;
+        }
+        return new LastLocation(
+                Double.longBitsToDouble(prefs.getLong("last_latitude", 0)),
+                Double.longBitsToDouble(prefs.getLong("last_longitude", 0)));
+    }
+
+    public static void save(Context context, double latitude, double longitude) {
+        context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE).edit()
+                .putLong("last_latitude", Double.doubleToRawLongBits(latitude))
+                .putLong("last_longitude", Double.doubleToRawLongBits(longitude))
+                .apply();
+    }
+}
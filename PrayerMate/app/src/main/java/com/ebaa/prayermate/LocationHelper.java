@@ -1,104 +1,130 @@
 package com.ebaa.prayermate;
 
+import android.content.BroadcastReceiver;
 import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
 import android.location.LocationManager;
-import android.net.ConnectivityManager;
-import android.net.NetworkInfo;
+import android.os.Build;
 import android.provider.Settings;
 
+/**
+ * حالة الموقع والاتصال محفوظة في حقول volatile تُحدّث من إشعارات النظام،
+ * فكل استعلام قراءة حقل فقط بدون getSystemService أو استدعاء binder.
+ * الاتصال من ConnectivityMonitor، وحالة الموقع من بث PROVIDERS_CHANGED_ACTION
+ * الذي يصل عند تغيير وضع الموقع أو تشغيل/إيقاف GPS.
+ */
 public class LocationHelper {
 
-    private Context context;
+    private static LocationHelper instance;
 
-    public LocationHelper(Context context) {
+    private final Context context;
+    private final LocationManager locationManager;
+    private final ConnectivityMonitor connectivityMonitor;
+
+    private volatile boolean locationEnabled;
+    private volatile boolean gpsEnabled;
+
+    public static synchronized LocationHelper getInstance(Context context) {
+        if (instance == null) {
+            instance = new LocationHelper(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    private LocationHelper(Context context) {
         this.context = context;
+        this.locationManager = (LocationManager) context.getSystemService(Context.LOCATION_SERVICE);
+        this.connectivityMonitor = ConnectivityMonitor.getInstance(context);
+
+        refreshLocationState();
+        try {
+            // تسجيل واحد طوال عمر التطبيق على سياق التطبيق
+            IntentFilter filter = new IntentFilter(LocationManager.PROVIDERS_CHANGED_ACTION);
+            filter.addAction(LocationManager.MODE_CHANGED_ACTION);
+            context.registerReceiver(new BroadcastReceiver() {
+                @Override
+                public void onReceive(Context context, Intent intent) {
+                    refreshLocationState();
+                }
+            }, filter);
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
     }
 
     /**
-     * فحص ما إذا كان GPS مفعل
+     * قراءة حالة الموقع من النظام (فقط عند البدء وعند وصول إشعار تغييرها)
      */
-    public boolean isGPSEnabled() {
+    private void refreshLocationState() {
         try {
-            LocationManager locationManager = (LocationManager) context.getSystemService(Context.LOCATION_SERVICE);
-            return locationManager != null && locationManager.isProviderEnabled(LocationManager.GPS_PROVIDER);
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.P && locationManager != null) {
+                locationEnabled = locationManager.isLocationEnabled();
+            } else {
+                int locationMode = Settings.Secure.getInt(context.getContentResolver(), Settings.Secure.LOCATION_MODE);
+                locationEnabled = locationMode != Settings.Secure.LOCATION_MODE_OFF;
+            }
+        } catch (Settings.SettingNotFoundException e) {
+            e.printStackTrace();
+            locationEnabled = false;
+        }
+
+        try {
+            gpsEnabled = locationManager != null && locationManager.isProviderEnabled(LocationManager.GPS_PROVIDER);
         } catch (Exception e) {
             e.printStackTrace();
-            return false;
+            gpsEnabled = false;
         }
     }
 
+    /**
+     * فحص ما إذا كان GPS مفعل
+     */
+    public boolean isGPSEnabled() {
+        return gpsEnabled;
+    }
+
     /**
      * فحص ما إذا كانت خدمات الموقع مفعلة بشكل عام
      */
     public boolean isLocationEnabled() {
-        try {
-            int locationMode = Settings.Secure.getInt(context.getContentResolver(), Settings.Secure.LOCATION_MODE);
-            return locationMode != Settings.Secure.LOCATION_MODE_OFF;
-        } catch (Settings.SettingNotFoundException e) {
-            e.printStackTrace();
-            return false;
-        }
+        return locationEnabled;
     }
 
     /**
-     * فحص الاتصال بالإنترنت
+     * فحص الاتصال بالإنترنت: شبكة متصلة وتحقق النظام من وصولها للإنترنت،
+     * فشبكة WiFi خلف بوابة دخول لا تُحسب اتصالاً ولا تُرسل عليها طلبات
      */
     public boolean isInternetAvailable() {
-        try {
-            ConnectivityManager connectivityManager = (ConnectivityManager) context.getSystemService(Context.CONNECTIVITY_SERVICE);
-            if (connectivityManager != null) {
-                NetworkInfo activeNetworkInfo = connectivityManager.getActiveNetworkInfo();
-                return activeNetworkInfo != null && activeNetworkInfo.isConnected();
-            }
-            return false;
-        } catch (Exception e) {
-            e.printStackTrace();
-            return false;
-        }
+        return connectivityMonitor.getState().isOnline();
     }
 
     /**
      * فحص ما إذا كان WiFi متصل
      */
     public boolean isWiFiConnected() {
-        try {
-            ConnectivityManager connectivityManager = (ConnectivityManager) context.getSystemService(Context.CONNECTIVITY_SERVICE);
-            if (connectivityManager != null) {
-                NetworkInfo wifiInfo = connectivityManager.getNetworkInfo(ConnectivityManager.TYPE_WIFI);
-                return wifiInfo != null && wifiInfo.isConnected();
-            }
-            return false;
-        } catch (Exception e) {
-            e.printStackTrace();
-            return false;
-        }
+        ConnectivityMonitor.State state = connectivityMonitor.getState();
+        return state.isConnected() && state.getTransport() == ConnectivityMonitor.TRANSPORT_WIFI;
     }
 
     /**
      * فحص ما إذا كانت بيانات الجوال متصلة
      */
     public boolean isMobileDataConnected() {
-        try {
-            ConnectivityManager connectivityManager = (ConnectivityManager) context.getSystemService(Context.CONNECTIVITY_SERVICE);
-            if (connectivityManager != null) {
-                NetworkInfo mobileInfo = connectivityManager.getNetworkInfo(ConnectivityManager.TYPE_MOBILE);
-                return mobileInfo != null && mobileInfo.isConnected();
-            }
-            return false;
-        } catch (Exception e) {
-            e.printStackTrace();
-            return false;
-        }
+        ConnectivityMonitor.State state = connectivityMonitor.getState();
+        return state.isConnected() && state.getTransport() == ConnectivityMonitor.TRANSPORT_CELLULAR;
     }
 
     /**
      * الحصول على رسالة حالة الاتصال
      */
     public String getConnectivityStatus() {
-        if (isInternetAvailable()) {
-            if (isWiFiConnected()) {
+        // لقطة واحدة حتى تكون الرسالة متسقة
+        ConnectivityMonitor.State state = connectivityMonitor.getState();
+        if (state.isOnline()) {
+            if (state.getTransport() == ConnectivityMonitor.TRANSPORT_WIFI) {
                 return "متصل عبر WiFi";
-            } else if (isMobileDataConnected()) {
+            } else if (state.getTransport() == ConnectivityMonitor.TRANSPORT_CELLULAR) {
                 return "متصل عبر بيانات الجوال";
             } else {
                 return "متصل بالإنترنت";
@@ -112,8 +138,8 @@ public class LocationHelper {
      * الحصول على رسالة حالة الموقع
      */
     public String getLocationStatus() {
-        if (isLocationEnabled()) {
-            if (isGPSEnabled()) {
+        if (locationEnabled) {
+            if (gpsEnabled) {
                 return "GPS مفعل";
             } else {
                 return "خدمات الموقع مفعلة (بدون GPS)";
@@ -122,4 +148,4 @@ public class LocationHelper {
             return "خدمات الموقع مغلقة";
         }
     }
-}
\ No newline at end of file
+}
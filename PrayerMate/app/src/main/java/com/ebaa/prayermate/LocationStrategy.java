@@ -0,0 +1,173 @@
+package com.ebaa.prayermate;
+
+import android.location.Location;
+
+import com.google.android.gms.location.CurrentLocationRequest;
+import com.google.android.gms.location.FusedLocationProviderClient;
+import com.google.android.gms.location.Priority;
+import com.google.android.gms.tasks.CancellationTokenSource;
+
+/**
+ * تحديد الموقع على مراحل بدلاً من انتظار GPS من البداية:
+ * 1. آخر موقع محفوظ (LastLocation) يعرض أوقاتاً صحيحة من أول إطار قبل استدعاء هذه الفئة
+ * 2. موقع بدقة متوازنة (شبكة/WiFi) يقبل قراءة حديثة مخزنة لدى النظام
+ * 3. موقع عالي الدقة (GPS) فقط إذا نقلت المرحلة الثانية المستخدم إلى خلية أوقات أخرى (TimingCell)
+ * كل طلب له مهلة، وكلها تُلغى بـ cancel() عند مغادرة النشاط.
+ */
+public class LocationStrategy {
+
+    public interface Listener {
+        /**
+         * @param precise true إذا كان الموقع من طلب عالي الدقة
+         */
+        void onLocation(Location location, boolean precise);
+
+        // لم يُعثر على أي موقع في كل المراحل
+        void onLocationUnavailable();
+    }
+
+    // قراءة النظام المخزنة مقبولة للمرحلة المتوازنة إذا لم يمر عليها أكثر من هذا
+    private static final long BALANCED_MAX_AGE_MS = 5 * 60 * 1000L;
+    private static final long BALANCED_TIMEOUT_MS = 10 * 1000L;
+    private static final long PRECISE_MAX_AGE_MS = 60 * 1000L;
+    private static final long PRECISE_TIMEOUT_MS = 30 * 1000L;
+
+    private final FusedLocationProviderClient client;
+    private final Listener listener;
+
+    private CancellationTokenSource cancellation;
+
+    public LocationStrategy(FusedLocationProviderClient client, Listener listener) {
+        this.client = client;
+        this.listener = listener;
+    }
+
+    /**
+     * @param known آخر موقع معروف أو null؛ يحدد هل تستحق النتيجة المتوازنة طلب GPS
+     */
+    public void start(LastLocation known) {
+        cancel();
+        CancellationTokenSource source = new CancellationTokenSource();
+        cancellation = source;
+
+        CurrentLocationRequest balanced = new CurrentLocationRequest.Builder()
+                .setPriority(Priority.PRIORITY_BALANCED_POWER_ACCURACY)
+                .setMaxUpdateAgeMillis(BALANCED_MAX_AGE_MS)
+                .setDurationMillis(BALANCED_TIMEOUT_MS)
+                .build();
+
+        client.getCurrentLocation(balanced, source.getToken())
+                .addOnSuccessListener(location -> {
+                    if (source != cancellation) return;
+                    if (location == null) {
+                        // انتهت المهلة بدون موقع: آخر موقع لدى النظام ثم GPS
+                        requestLastKnown(source, known);
+                        return;
+                    }
+                    listener.onLocation(location, false);
+                    if (known == null || movedCell(known, location)) {
+                        requestPrecise(source, true);
+                    } else {
+                        finish(source);
+                    }
+                })
+                .addOnFailureListener(e -> {
+                    if (source != cancellation) return;
+                    e.printStackTrace();
+                    requestLastKnown(source, known);
+                });
+    }
+
+    public boolean isRunning() {
+        return cancellation != null;
+    }
+
+    /**
+     * إلغاء أي طلب جارٍ
+     * @return true إذا كان هناك طلب لم يكتمل بعد
+     */
+    public boolean cancel() {
+        CancellationTokenSource source = cancellation;
+        cancellation = null;
+        if (source == null) {
+            return false;
+        }
+        source.cancel();
+        return true;
+    }
+
+    private void requestLastKnown(CancellationTokenSource source, LastLocation known) {
+        try {
+            client.getLastLocation()
+                    .addOnSuccessListener(location -> {
+                        if (source != cancellation) return;
+                        if (location != null) {
+                            listener.onLocation(location, false);
+                            if (known != null && !movedCell(known, location)) {
+                                finish(source);
+                                return;
+                            }
+                        }
+                        requestPrecise(source, location != null);
+                    })
+                    .addOnFailureListener(e -> {
+                        if (source != cancellation) return;
+                        e.printStackTrace();
+                        requestPrecise(source, false);
+                    });
+        } catch (SecurityException e) {
+            e.printStackTrace();
+            finish(source);
+            listener.onLocationUnavailable();
+        }
+    }
+
+    /**
+     * @param haveFix وصل موقع تقريبي بالفعل، فلا داعي لإبلاغ الفشل إذا لم يصل GPS
+     */
+    private void requestPrecise(CancellationTokenSource source, boolean haveFix) {
+        try {
+            CurrentLocationRequest precise = new CurrentLocationRequest.Builder()
+                    .setPriority(Priority.PRIORITY_HIGH_ACCURACY)
+                    .setMaxUpdateAgeMillis(PRECISE_MAX_AGE_MS)
+                    .setDurationMillis(PRECISE_TIMEOUT_MS)
+                    .build();
+
+            client.getCurrentLocation(precise, source.getToken())
+                    .addOnSuccessListener(location -> {
+                        if (source != cancellation) return;
+                        finish(source);
+                        if (location != null) {
+                            listener.onLocation(location, true);
+                        } else if (!haveFix) {
+                            listener.onLocationUnavailable();
+                        }
+                    })
+                    .addOnFailureListener(e -> {
+                        if (source != cancellation) return;
+                        e.printStackTrace();
+                        finish(source);
+                        if (!haveFix) {
+                            listener.onLocationUnavailable();
+                        }
+                    });
+        } catch (SecurityException e) {
+            e.printStackTrace();
+            finish(source);
+            if (!haveFix) {
+                listener.onLocationUnavailable();
+            }
+        }
+    }
+
+    private void finish(CancellationTokenSource source) {
+        if (source == cancellation) {
+            cancellation = null;
+        }
+    }
+
+    private static boolean movedCell(LastLocation known, Location location) {
+        return TimingCell.invalidates(known.getLatitude(), known.getLongitude(),
+                location.getLatitude(), location.getLongitude());
+    }
+}
@@ -6,10 +6,11 @@ import android.content.Context;
 import android.content.Intent;
 import android.content.IntentFilter;
 import android.location.Location;
-import android.net.ConnectivityManager;
+import android.os.Build;
 import android.os.Bundle;
 import android.os.Handler;
 import android.provider.Settings;
+import android.util.Log;
 import android.widget.TextView;
 import android.widget.Toast;
 
@@ -28,12 +29,13 @@ import com.karumi.dexter.listener.PermissionGrantedResponse;
 import com.karumi.dexter.listener.PermissionRequest;
 import com.karumi.dexter.listener.single.PermissionListener;
 
-import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Calendar;
-import java.util.Date;
 import java.util.List;
 import java.util.Locale;
+import java.util.TimeZone;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import retrofit2.Call;
 import retrofit2.Callback;
@@ -41,26 +43,65 @@ import retrofit2.Response;
 
 public class MainActivity extends AppCompatActivity {
 
+    private static final String TAG = "MainActivity";
+
+    // مقارنة الأوقات المحسوبة محلياً مع Aladhan عند توفر الإنترنت
+    private static final boolean CROSS_CHECK_WITH_API = true;
+
+    // أقصى مسافة لعرض اسم أقرب مدينة بدلاً من الإحداثيات
+    private static final double CITY_RADIUS_KM = 50;
+
     private TextView tvLocation, tvCurrentTime, tvNextPrayer;
     private RecyclerView recyclerViewPrayers;
     private FloatingActionButton fabQibla;
     private PrayerTimesAdapter adapter;
-    private List<PrayerTime> prayerTimes;
+    // الصلاة القادمة المميزة في القائمة (-1 قبل أول حساب)
+    private int nextPrayer = -1;
 
     private FusedLocationProviderClient fusedLocationClient;
+    private LocationStrategy locationStrategy;
     private PrayerTimesApi api;
     private Handler timeHandler;
     private Runnable timeRunnable;
+    private NextPrayerScheduler nextPrayerScheduler;
+
+    // مخزن نص الساعة يعاد استخدامه كل ثانية بدلاً من SimpleDateFormat و Date
+    private static final String CLOCK_PREFIX = "الوقت الحالي: ";
+    private final char[] clockBuffer = (CLOCK_PREFIX + "00:00:00").toCharArray();
+    private TimeZone clockTimeZone = TimeZone.getDefault();
+    private final BroadcastReceiver timeZoneReceiver = new BroadcastReceiver() {
+        @Override
+        public void onReceive(Context context, Intent intent) {
+            restartClock();
+        }
+    };
+    private final PrayerTimesCalculator calculator = PrayerTimesCalculator.egyptian();
+    private TimetableStore timetableStore;
+    private CountryLocator countryLocator;
+    private CityGazetteer cityGazetteer;
+    // انتظار تحميل فهارس الأماكن بعيداً عن الخيط الرئيسي
+    private final ExecutorService placeIndexLoader = Executors.newSingleThreadExecutor();
+    private String locationName;
+    private double locationNameLatitude, locationNameLongitude;
+    private DayTimings todayTimings;
+
+    private static final String[] PRAYER_NAMES = {"الفجر", "الشروق", "الظهر", "العصر", "المغرب", "العشاء"};
+    private static final String[] PRAYER_EMOJIS = {"🌅", "☀️", "🌞", "🌤️", "🌅", "🌙"};
 
     private double currentLatitude = 30.0444; // Default: Cairo
     private double currentLongitude = 31.2357;
+    // الإحداثيات الحالية من موقع حقيقي (محفوظ أو جديد) وليست القاهرة الافتراضية
+    private boolean hasLocationFix;
+    // طلب موقع أُوقف عند مغادرة النشاط ويجب استئنافه عند العودة
+    private boolean resumeLocationRequest;
 
     // إضافة المتغيرات الجديدة للفحوصات
     private LocationHelper locationHelper;
     private AlertDialog connectivityDialog;
     private boolean hasShownConnectivityWarning = false;
     private boolean hasShownLocationWarning = false;
-    private BroadcastReceiver connectivityReceiver;
+    private ConnectivityMonitor.Listener connectivityListener;
+    private boolean wasOnline;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -69,25 +110,30 @@ public class MainActivity extends AppCompatActivity {
         try {
             setContentView(R.layout.activity_main);
 
+            timetableStore = TimetableStore.getInstance(this);
+            loadPlaceIndexes();
+
             initViews();
             setupRecyclerView();
+            setupNextPrayerScheduler();
+
+            // عرض آخر موقع معروف وجدوله المخزن قبل أي عمل على الشبكة أو الموقع
+            restoreLastLocation();
+            loadLocalPrayerTimes();
             setupLocation();
             setupClickListeners();
 
             // تهيئة مساعد الموقع والاتصال
-            locationHelper = new LocationHelper(this);
+            locationHelper = LocationHelper.getInstance(this);
 
             // فحص الاتصال والموقع عند بدء التطبيق
             checkConnectivityAndLocation();
 
-            // تسجيل مستمع تغيرات الشبكة
-            registerConnectivityReceiver();
+            // الاشتراك في تغيرات الشبكة (مراقب واحد للتطبيق كله)
+            registerConnectivityListener();
 
             startTimeUpdater();
 
-            // Load default prayer times first
-            loadDefaultPrayerTimes();
-
             // Then request location permission
             requestLocationPermission();
 
@@ -113,7 +159,7 @@ public class MainActivity extends AppCompatActivity {
 
             // Initialize API with error handling
             try {
-                api = ApiClient.getClient().create(PrayerTimesApi.class);
+                api = ApiClient.getClient(this).create(PrayerTimesApi.class);
             } catch (Exception e) {
                 e.printStackTrace();
                 Toast.makeText(this, "خطأ في تهيئة API", Toast.LENGTH_SHORT).show();
@@ -127,8 +173,7 @@ public class MainActivity extends AppCompatActivity {
 
     private void setupRecyclerView() {
         try {
-            prayerTimes = new ArrayList<>();
-            adapter = new PrayerTimesAdapter(prayerTimes);
+            adapter = new PrayerTimesAdapter();
             recyclerViewPrayers.setLayoutManager(new LinearLayoutManager(this));
             recyclerViewPrayers.setAdapter(adapter);
         } catch (Exception e) {
@@ -140,6 +185,17 @@ public class MainActivity extends AppCompatActivity {
     private void setupLocation() {
         try {
             fusedLocationClient = LocationServices.getFusedLocationProviderClient(this);
+            locationStrategy = new LocationStrategy(fusedLocationClient, new LocationStrategy.Listener() {
+                @Override
+                public void onLocation(Location location, boolean precise) {
+                    handleLocationResult(location, precise);
+                }
+
+                @Override
+                public void onLocationUnavailable() {
+                    handleLocationResult(null, false);
+                }
+            });
         } catch (Exception e) {
             e.printStackTrace();
             Toast.makeText(this, "خطأ في تهيئة خدمة الموقع", Toast.LENGTH_SHORT).show();
@@ -199,7 +255,7 @@ public class MainActivity extends AppCompatActivity {
     private void showConnectivityWarning() {
         new AlertDialog.Builder(this)
                 .setTitle("⚠️ تنبيه الاتصال")
-                .setMessage("لا يوجد اتصال بالإنترنت!\n\n• لن يتم الحصول على أوقات الصلاة الدقيقة\n• سيتم استخدام الأوقات الافتراضية للقاهرة\n• تأكد من الاتصال بالإنترنت للحصول على أوقات دقيقة حسب موقعك")
+                .setMessage("لا يوجد اتصال بالإنترنت!\n\n• سيتم حساب أوقات الصلاة على الجهاز حسب موقعك\n• لن تتم مقارنة الأوقات مع خادم Aladhan\n• تأكد من الاتصال بالإنترنت لتحديد اسم موقعك بدقة")
                 .setPositiveButton("موافق", null)
                 .setNegativeButton("إعدادات الشبكة", (dialog, which) -> {
                     try {
@@ -249,24 +305,25 @@ public class MainActivity extends AppCompatActivity {
             String locationText = "الموقع: ";
 
             // أولاً فحص حالة خدمات الموقع والإنترنت
-            if (!locationEnabled) {
+            if (!locationEnabled && !hasLocationFix) {
                 locationText += "القاهرة، مصر (افتراضي) ⚠️ الموقع مغلق";
             } else if (!internetAvailable) {
-                if (currentLatitude != 30.0444 || currentLongitude != 31.2357) {
+                if (hasLocationFix) {
                     locationText += getLocationName(currentLatitude, currentLongitude) + " ⚠️ لا يوجد إنترنت";
                 } else {
                     locationText += "القاهرة، مصر (افتراضي) ⚠️ لا يوجد إنترنت";
                 }
             } else {
                 // الموقع والإنترنت متاحان
-                if (currentLatitude != 30.0444 || currentLongitude != 31.2357) {
+                if (hasLocationFix) {
                     locationText += getLocationName(currentLatitude, currentLongitude) + " ✅";
                 } else {
                     locationText += "القاهرة، مصر (افتراضي) 🔄";
                 }
             }
 
-            if (tvLocation != null) {
+            // في أغلب مرات العودة للتطبيق لا يتغير النص، فلا داعي لإعادة التخطيط
+            if (tvLocation != null && !locationText.contentEquals(tvLocation.getText())) {
                 tvLocation.setText(locationText);
             }
         } catch (Exception e) {
@@ -274,46 +331,66 @@ public class MainActivity extends AppCompatActivity {
         }
     }
 
-    // تسجيل مستمع تغيرات الشبكة
-    private void registerConnectivityReceiver() {
+    // الاشتراك في تغيرات الشبكة: الحالة تصل بعد استقرارها فقط، لذلك
+    // تذبذب الشبكة يسبب تحديثاً واحداً على الأكثر
+    private void registerConnectivityListener() {
         try {
-            connectivityReceiver = new BroadcastReceiver() {
-                @Override
-                public void onReceive(Context context, Intent intent) {
-                    try {
-                        boolean internetAvailable = locationHelper.isInternetAvailable();
-
-                        if (internetAvailable) {
-                            Toast.makeText(context, "✅ تم الاتصال بالإنترنت - جاري تحديث أوقات الصلاة", Toast.LENGTH_SHORT).show();
-                            // إعادة محاولة تحميل أوقات الصلاة
-                            if (currentLatitude != 0 && currentLongitude != 0) {
-                                loadPrayerTimes(currentLatitude, currentLongitude);
-                            }
-                            hasShownConnectivityWarning = false;
-                        } else {
-                            Toast.makeText(context, "❌ انقطع الاتصال بالإنترنت - استخدام الأوقات المحفوظة", Toast.LENGTH_SHORT).show();
+            wasOnline = ConnectivityMonitor.getInstance(this).getState().isOnline();
+            connectivityListener = state -> {
+                try {
+                    boolean online = state.isOnline();
+                    // تغير نوع الشبكة أو كونها محدودة البيانات لا يستدعي إعادة التحميل
+                    if (online == wasOnline) {
+                        return;
+                    }
+                    wasOnline = online;
+
+                    if (online) {
+                        Toast.makeText(this, "✅ تم الاتصال بالإنترنت - جاري تحديث أوقات الصلاة", Toast.LENGTH_SHORT).show();
+                        // إعادة محاولة تحميل أوقات الصلاة
+                        if (currentLatitude != 0 && currentLongitude != 0) {
+                            loadPrayerTimes(currentLatitude, currentLongitude);
                         }
-                    } catch (Exception e) {
-                        e.printStackTrace();
+                        hasShownConnectivityWarning = false;
+                    } else {
+                        // شبكة بدون تحقق (مثل بوابة دخول WiFi) تُعامل كانقطاع ولا تُرسل عليها طلبات
+                        Toast.makeText(this, "❌ انقطع الاتصال بالإنترنت - استخدام الأوقات المحفوظة", Toast.LENGTH_SHORT).show();
                     }
+                    updateConnectivityStatus(online, locationHelper.isLocationEnabled());
+                } catch (Exception e) {
+                    e.printStackTrace();
                 }
             };
-
-            IntentFilter filter = new IntentFilter(ConnectivityManager.CONNECTIVITY_ACTION);
-            registerReceiver(connectivityReceiver, filter);
+            ConnectivityMonitor.getInstance(this).addListener(connectivityListener);
         } catch (Exception e) {
             e.printStackTrace();
         }
     }
 
+    /**
+     * الساعة والصلاة القادمة بالمنطقة الزمنية الحالية، حتى لا يختلفان بعد تغييرها
+     */
+    private void restartClock() {
+        clockTimeZone = TimeZone.getDefault();
+        if (timeHandler != null && timeRunnable != null) {
+            timeHandler.removeCallbacks(timeRunnable);
+            timeHandler.post(timeRunnable);
+        }
+        if (nextPrayerScheduler != null) {
+            nextPrayerScheduler.start();
+        }
+    }
+
     private void startTimeUpdater() {
         timeHandler = new Handler();
         timeRunnable = new Runnable() {
             @Override
             public void run() {
                 try {
-                    updateCurrentTime();
-                    timeHandler.postDelayed(this, 1000);
+                    long now = System.currentTimeMillis();
+                    updateCurrentTime(now);
+                    // التحديث التالي على بداية الثانية التالية بالضبط
+                    timeHandler.postDelayed(this, 1000 - (now % 1000));
                 } catch (Exception e) {
                     e.printStackTrace();
                 }
@@ -322,6 +399,28 @@ public class MainActivity extends AppCompatActivity {
         timeHandler.post(timeRunnable);
     }
 
+    private void setupNextPrayerScheduler() {
+        nextPrayerScheduler = new NextPrayerScheduler(new NextPrayerScheduler.Listener() {
+            @Override
+            public void onNextPrayerChanged(int prayer) {
+                if (tvNextPrayer != null) {
+                    tvNextPrayer.setText("الصلاة القادمة: " + PRAYER_NAMES[prayer]);
+                }
+                // صفان فقط يتغيران (القديمة والجديدة) وبـ payload للتمييز فقط
+                if (prayer != nextPrayer) {
+                    nextPrayer = prayer;
+                    submitPrayerList();
+                }
+            }
+
+            @Override
+            public void onNewDay() {
+                loadLocalPrayerTimes();
+            }
+        });
+        nextPrayerScheduler.start();
+    }
+
     private void requestLocationPermission() {
         try {
             Dexter.withContext(this)
@@ -330,6 +429,7 @@ public class MainActivity extends AppCompatActivity {
                         @Override
                         public void onPermissionGranted(PermissionGrantedResponse response) {
                             getUserLocation();
+                            requestNotificationPermission();
                         }
 
                         @Override
@@ -337,6 +437,7 @@ public class MainActivity extends AppCompatActivity {
                             Toast.makeText(MainActivity.this, "⚠️ يجب السماح بالوصول للموقع للحصول على أوقات دقيقة", Toast.LENGTH_LONG).show();
                             // Keep default prayer times and location
                             tvLocation.setText("الموقع: القاهرة، مصر (افتراضي) - لم يتم منح إذن الموقع");
+                            requestNotificationPermission();
                         }
 
                         @Override
@@ -350,34 +451,58 @@ public class MainActivity extends AppCompatActivity {
         }
     }
 
+    // إذن إشعارات الأذان مطلوب فقط على Android 13+
+    private void requestNotificationPermission() {
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.TIRAMISU) return;
+
+        try {
+            Dexter.withContext(this)
+                    .withPermission(Manifest.permission.POST_NOTIFICATIONS)
+                    .withListener(new PermissionListener() {
+                        @Override
+                        public void onPermissionGranted(PermissionGrantedResponse response) {
+                        }
+
+                        @Override
+                        public void onPermissionDenied(PermissionDeniedResponse response) {
+                            Toast.makeText(MainActivity.this, "⚠️ لن تظهر تنبيهات الأذان بدون إذن الإشعارات", Toast.LENGTH_LONG).show();
+                        }
+
+                        @Override
+                        public void onPermissionRationaleShouldBeShown(PermissionRequest permission, PermissionToken token) {
+                            token.continuePermissionRequest();
+                        }
+                    }).check();
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+
     // دالة واحدة فقط للحصول على الموقع
     private void getUserLocation() {
         try {
             // فحص خدمات الموقع قبل المحاولة
             if (!locationHelper.isLocationEnabled()) {
-                updateLocationDisplay("القاهرة، مصر (افتراضي) - خدمات الموقع مغلقة");
+                // الموقع المحفوظ يبقى معروضاً حتى يتم تفعيل الخدمات
+                if (!hasLocationFix) {
+                    updateLocationDisplay("القاهرة، مصر (افتراضي) - خدمات الموقع مغلقة");
+                }
                 return;
             }
 
-            if (fusedLocationClient == null) {
+            if (locationStrategy == null) {
                 updateLocationDisplay("القاهرة، مصر (افتراضي) - خطأ في خدمة الموقع");
-                loadDefaultPrayerTimes();
+                loadLocalPrayerTimes();
                 return;
             }
 
-            // عرض رسالة التحميل
-            updateLocationDisplay("جاري تحديد الموقع... 🔄");
-
-            // محاولة الحصول على الموقع الحالي أولاً
-            fusedLocationClient.getCurrentLocation(
-                    com.google.android.gms.location.LocationRequest.PRIORITY_HIGH_ACCURACY,
-                    null
-            ).addOnSuccessListener(this, location -> {
-                handleLocationResult(location, true);
-            }).addOnFailureListener(e -> {
-                // إذا فشل الموقع الحالي، جرب آخر موقع معروف
-                getLastKnownLocation();
-            });
+            // مع وجود موقع محفوظ تظهر أوقاته بالفعل، فلا داعي لرسالة التحميل
+            if (!hasLocationFix) {
+                updateLocationDisplay("جاري تحديد الموقع... 🔄");
+            }
+
+            // دقة متوازنة أولاً، و GPS فقط إذا تغيرت خلية الأوقات
+            locationStrategy.start(hasLocationFix ? new LastLocation(currentLatitude, currentLongitude) : null);
 
         } catch (SecurityException e) {
             e.printStackTrace();
@@ -388,39 +513,29 @@ public class MainActivity extends AppCompatActivity {
         }
     }
 
-    // دالة للحصول على آخر موقع معروف
-    private void getLastKnownLocation() {
-        try {
-            fusedLocationClient.getLastLocation()
-                    .addOnSuccessListener(this, location -> {
-                        handleLocationResult(location, false);
-                    })
-                    .addOnFailureListener(e -> {
-                        e.printStackTrace();
-                        updateLocationDisplay("القاهرة، مصر (افتراضي) - فشل في تحديد الموقع");
-                        Toast.makeText(this, "❌ فشل في الحصول على الموقع", Toast.LENGTH_SHORT).show();
-                    });
-        } catch (SecurityException e) {
-            e.printStackTrace();
-            updateLocationDisplay("القاهرة، مصر (افتراضي) - لا يوجد إذن موقع");
-        }
-    }
-
     // دالة موحدة للتعامل مع نتيجة الموقع
-    private void handleLocationResult(Location location, boolean isCurrentLocation) {
+    private void handleLocationResult(Location location, boolean precise) {
         try {
+            // تحرك بضعة أمتار أو داخل نفس خلية الأوقات لا يغير الجدول: لا حساب ولا شبكة
+            if (location != null && hasLocationFix && !TimingCell.invalidates(currentLatitude, currentLongitude,
+                    location.getLatitude(), location.getLongitude())) {
+                return;
+            }
+
             if (location != null) {
                 currentLatitude = location.getLatitude();
                 currentLongitude = location.getLongitude();
+                hasLocationFix = true;
+                saveLastLocation();
 
                 String locationName = getLocationName(currentLatitude, currentLongitude);
-                String locationSource = isCurrentLocation ? "الحالي" : "المحفوظ";
+                String locationSource = precise ? "بدقة عالية" : "الحالي";
 
                 updateLocationDisplay(locationName + " ✅");
                 loadPrayerTimes(currentLatitude, currentLongitude);
 
                 Toast.makeText(this, "✅ تم تحديد الموقع " + locationSource + ": " + locationName, Toast.LENGTH_SHORT).show();
-            } else {
+            } else if (!hasLocationFix) {
                 updateLocationDisplay("القاهرة، مصر (افتراضي) - لم يتم العثور على الموقع");
                 Toast.makeText(this, "❌ لم يتم العثور على الموقع، تأكد من تفعيل GPS", Toast.LENGTH_SHORT).show();
             }
@@ -449,373 +564,260 @@ public class MainActivity extends AppCompatActivity {
     }
 
     private void loadPrayerTimes(double latitude, double longitude) {
-        // فحص الإنترنت قبل المحاولة
-        if (!locationHelper.isInternetAvailable()) {
-            Toast.makeText(this, "❌ لا يوجد اتصال بالإنترنت - استخدام الأوقات الافتراضية", Toast.LENGTH_SHORT).show();
-            loadDefaultPrayerTimes();
+        // الجدول المخزن أو الحساب المحلي هما المصدر الوحيد للأوقات المعروضة
+        if (showStoredPrayerTimes(latitude, longitude)) {
+            storeNextMonthIfNeeded(latitude, longitude);
             return;
         }
+        showComputedPrayerTimes(latitude, longitude);
 
-        if (api == null) {
-            Toast.makeText(this, "❌ خطأ في API - استخدام الأوقات الافتراضية", Toast.LENGTH_SHORT).show();
-            loadDefaultPrayerTimes();
-            return;
+        Calendar today = Calendar.getInstance();
+        int year = today.get(Calendar.YEAR);
+        int month = today.get(Calendar.MONTH) + 1;
+        storeMonth(latitude, longitude, year, month);
+        storeNextMonthIfNeeded(latitude, longitude);
+
+        if (CROSS_CHECK_WITH_API && api != null && locationHelper.isInternetAvailable()) {
+            crossCheckMonth(latitude, longitude, year, month);
         }
+    }
 
+    /**
+     * حساب أيام الشهر محلياً وحفظها لخلية الموقع، ثم إعادة بناء منبهات الأذان من الجدول الجديد
+     */
+    private void storeMonth(double latitude, double longitude, int year, int month) {
         try {
-            Toast.makeText(this, "🔄 جاري تحميل أوقات الصلاة...", Toast.LENGTH_SHORT).show();
+            Calendar first = Calendar.getInstance();
+            first.clear();
+            first.set(year, month - 1, 1);
+            int days = first.getActualMaximum(Calendar.DAY_OF_MONTH);
+
+            long firstDay = DayTimings.epochDay(year, month, 1);
+            List<DayTimings> timings = new ArrayList<>(days);
+            for (long epochDay = firstDay; epochDay < firstDay + days; epochDay++) {
+                timings.add(calculator.computeDay(latitude, longitude, epochDay,
+                        DayTimings.localUtcOffsetMinutes(epochDay)));
+            }
+
+            timetableStore.putAllAsync(TimetableStore.cellKey(latitude, longitude), timings, todayEpochDay(),
+                    () -> AdhanAlarmScheduler.scheduleAsync(getApplicationContext(), null));
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+
+    // حساب الشهر التالي مسبقاً في آخر أيام الشهر حتى لا يبدأ بدون جدول مخزن
+    private void storeNextMonthIfNeeded(double latitude, double longitude) {
+        Calendar today = Calendar.getInstance();
+        int daysLeft = today.getActualMaximum(Calendar.DAY_OF_MONTH) - today.get(Calendar.DAY_OF_MONTH);
+        if (daysLeft > 2) {
+            return;
+        }
+
+        Calendar nextMonth = (Calendar) today.clone();
+        nextMonth.set(Calendar.DAY_OF_MONTH, 1);
+        nextMonth.add(Calendar.MONTH, 1);
+        int year = nextMonth.get(Calendar.YEAR);
+        int month = nextMonth.get(Calendar.MONTH) + 1;
 
-            String date = new SimpleDateFormat("dd-MM-yyyy", Locale.getDefault()).format(new Date());
+        if (!timetableStore.contains(TimetableStore.cellKey(latitude, longitude),
+                DayTimings.epochDay(year, month, 1))) {
+            storeMonth(latitude, longitude, year, month);
+        }
+    }
 
-            Call<PrayerTimesResponse> call = api.getPrayerTimes(latitude, longitude, date);
-            call.enqueue(new Callback<PrayerTimesResponse>() {
+    /**
+     * طلب نفس الشهر من Aladhan بنفس طريقة الحساب وتسجيل الفروق فقط؛
+     * نتيجة الخادم لا تُعرض ولا تُحفظ
+     */
+    private void crossCheckMonth(double latitude, double longitude, int year, int month) {
+        try {
+            Call<PrayerTimesResponse.Calendar> call = api.getMonthlyCalendar(latitude, longitude, month, year,
+                    PrayerTimesApi.METHOD_EGYPTIAN, PrayerTimesApi.SCHOOL_SHAFI);
+            call.enqueue(new Callback<PrayerTimesResponse.Calendar>() {
                 @Override
-                public void onResponse(Call<PrayerTimesResponse> call, Response<PrayerTimesResponse> response) {
+                public void onResponse(Call<PrayerTimesResponse.Calendar> call, Response<PrayerTimesResponse.Calendar> response) {
                     try {
-                        if (response.isSuccessful() && response.body() != null) {
-                            Toast.makeText(MainActivity.this, "✅ تم تحميل أوقات الصلاة بنجاح", Toast.LENGTH_SHORT).show();
-                            updatePrayerTimes(response.body());
-                        } else {
-                            Toast.makeText(MainActivity.this, "⚠️ فشل في تحميل أوقات الصلاة - استخدام الأوقات الافتراضية", Toast.LENGTH_SHORT).show();
-                            loadDefaultPrayerTimes();
+                        if (!response.isSuccessful() || response.body() == null || response.body().getData() == null) {
+                            Log.w(TAG, "Aladhan calendar failed: HTTP " + response.code());
+                            return;
+                        }
+
+                        for (PrayerTimesResponse.Data day : response.body().getData()) {
+                            logCrossCheck(latitude, longitude, day);
                         }
                     } catch (Exception e) {
                         e.printStackTrace();
-                        loadDefaultPrayerTimes();
                     }
                 }
 
                 @Override
-                public void onFailure(Call<PrayerTimesResponse> call, Throwable t) {
-                    t.printStackTrace();
-                    Toast.makeText(MainActivity.this, "❌ خطأ في الاتصال - استخدام الأوقات الافتراضية", Toast.LENGTH_SHORT).show();
-                    loadDefaultPrayerTimes();
+                public void onFailure(Call<PrayerTimesResponse.Calendar> call, Throwable t) {
+                    // الأوقات المحسوبة محلياً معروضة بالفعل
+                    Log.w(TAG, "Aladhan calendar failed", t);
                 }
             });
         } catch (Exception e) {
             e.printStackTrace();
-            loadDefaultPrayerTimes();
         }
     }
 
-    private void updatePrayerTimes(PrayerTimesResponse response) {
+    // عرض جدول اليوم المخزن لخلية الموقع إن وُجد
+    private boolean showStoredPrayerTimes(double latitude, double longitude) {
         try {
-            prayerTimes.clear();
-
-            PrayerTimesResponse.Data data = response.getData();
-            if (data == null) {
-                loadDefaultPrayerTimes();
-                return;
-            }
-
-            PrayerTimesResponse.Timings timings = data.getTimings();
-            if (timings == null) {
-                loadDefaultPrayerTimes();
-                return;
+            DayTimings today = timetableStore.getDay(TimetableStore.cellKey(latitude, longitude), todayEpochDay());
+            if (today == null) {
+                return false;
             }
-
-            // Clean time format (remove timezone info)
-            String fajr = cleanTimeFormat(timings.getFajr());
-            String sunrise = cleanTimeFormat(timings.getSunrise());
-            String dhuhr = cleanTimeFormat(timings.getDhuhr());
-            String asr = cleanTimeFormat(timings.getAsr());
-            String maghrib = cleanTimeFormat(timings.getMaghrib());
-            String isha = cleanTimeFormat(timings.getIsha());
-
-            // إضافة جميع الصلوات مع الإيموجي المناسب لكل صلاة
-            prayerTimes.add(new PrayerTime("الفجر", fajr, "🌅"));
-            prayerTimes.add(new PrayerTime("الشروق", sunrise, "☀️"));
-            prayerTimes.add(new PrayerTime("الظهر", dhuhr, "🌞"));
-            prayerTimes.add(new PrayerTime("العصر", asr, "🌤️"));
-            prayerTimes.add(new PrayerTime("المغرب", maghrib, "🌅"));
-            prayerTimes.add(new PrayerTime("العشاء", isha, "🌙"));
-
-            adapter.notifyDataSetChanged();
-            updateNextPrayer();
+            showDayTimings(today);
+            return true;
         } catch (Exception e) {
             e.printStackTrace();
-            loadDefaultPrayerTimes();
+            return false;
         }
     }
 
-    private String cleanTimeFormat(String time) {
-        if (time == null) return "00:00";
-        // Remove timezone info like "(EET)" or "+02:00"
-        return time.split(" ")[0].substring(0, Math.min(time.length(), 5));
-    }
-
-    private void loadDefaultPrayerTimes() {
+    private void showDayTimings(DayTimings day) {
         try {
-            prayerTimes.clear();
-            // إضافة جميع الصلوات الافتراضية مع الإيموجي
-            prayerTimes.add(new PrayerTime("الفجر", "04:34", "🌅"));
-            prayerTimes.add(new PrayerTime("الشروق", "06:13", "☀️"));
-            prayerTimes.add(new PrayerTime("الظهر", "13:01", "🌞"));
-            prayerTimes.add(new PrayerTime("العصر", "16:39", "🌤️"));
-            prayerTimes.add(new PrayerTime("المغرب", "19:50", "🌅"));
-            prayerTimes.add(new PrayerTime("العشاء", "21:15", "🌙"));
-
-            if (adapter != null) {
-                adapter.notifyDataSetChanged();
+            todayTimings = day;
+
+            // نفس الأوقات (مثل الجدول المخزن ثم الحساب المحلي) لا تعيد ربط أي صف
+            submitPrayerList();
+            if (nextPrayerScheduler != null) {
+                nextPrayerScheduler.setTimings(day);
             }
-            updateNextPrayer();
         } catch (Exception e) {
             e.printStackTrace();
         }
     }
 
-    private void updateCurrentTime() {
-        try {
-            SimpleDateFormat sdf = new SimpleDateFormat("HH:mm:ss", Locale.getDefault());
-            String currentTime = sdf.format(new Date());
-            if (tvCurrentTime != null) {
-                tvCurrentTime.setText("الوقت الحالي: " + currentTime);
-            }
-        } catch (Exception e) {
-            e.printStackTrace();
+    /**
+     * بناء قائمة جديدة من جدول اليوم والصلاة القادمة؛ ListAdapter يحسب الفروق في الخلفية
+     */
+    private void submitPrayerList() {
+        if (adapter == null || todayTimings == null) {
+            return;
         }
+        List<PrayerTime> list = new ArrayList<>(todayTimings.size());
+        // إضافة جميع الصلوات مع الإيموجي المناسب لكل صلاة
+        for (int i = 0; i < todayTimings.size(); i++) {
+            list.add(new PrayerTime(i, PRAYER_NAMES[i], todayTimings.getMinutes(i), PRAYER_EMOJIS[i], i == nextPrayer));
+        }
+        adapter.submitList(list);
     }
 
-    private void updateNextPrayer() {
-        try {
-            if (prayerTimes.isEmpty() || tvNextPrayer == null) {
-                return;
-            }
-
-            // Simple logic to find next prayer
-            Calendar now = Calendar.getInstance();
-            int currentHour = now.get(Calendar.HOUR_OF_DAY);
-            int currentMinute = now.get(Calendar.MINUTE);
-            int currentTimeInMinutes = currentHour * 60 + currentMinute;
-
-            String nextPrayerName = "الفجر"; // Default to Fajr
-
-            for (PrayerTime prayer : prayerTimes) {
-                try {
-                    // تجاهل الشروق لأنه ليس صلاة
-                    if (prayer.getName().equals("الشروق")) {
-                        continue;
-                    }
-
-                    String[] timeParts = prayer.getTime().split(":");
-                    if (timeParts.length >= 2) {
-                        int prayerHour = Integer.parseInt(timeParts[0]);
-                        int prayerMinute = Integer.parseInt(timeParts[1]);
-                        int prayerTimeInMinutes = prayerHour * 60 + prayerMinute;
-
-                        if (prayerTimeInMinutes > currentTimeInMinutes) {
-                            nextPrayerName = prayer.getName();
-                            break;
-                        }
-                    }
-                } catch (Exception e) {
-                    // Skip this prayer time if parsing fails
-                    continue;
-                }
-            }
-
-            tvNextPrayer.setText("الصلاة القادمة: " + nextPrayerName);
-        } catch (Exception e) {
-            e.printStackTrace();
-            if (tvNextPrayer != null) {
-                tvNextPrayer.setText("الصلاة القادمة: الفجر");
+    // تسجيل الفروق بين الجدول المعروض والجدول الجديد لمراقبة دقة المحرك المحلي
+    private void logCrossCheck(double latitude, double longitude, PrayerTimesResponse.Data server) {
+        if (server == null || server.getTimings() == null || server.getDate() == null) {
+            return;
+        }
+        long epochDay = server.getDate().getEpochDay();
+        DayTimings local = calculator.computeDay(latitude, longitude, epochDay,
+                DayTimings.localUtcOffsetMinutes(epochDay));
+        for (int i = 0; i < local.size(); i++) {
+            // Aladhan يكتب العشاء بعد منتصف الليل بساعة اليوم التالي (00:14 بدلاً من 24:14)
+            int diff = Math.floorMod(server.getTimings().getMinutes(i) - local.getMinutes(i) + 720, 24 * 60) - 720;
+            if (diff != 0) {
+                Log.i(TAG, "Cross-check " + server.getDate().getReadable() + " " + PRAYER_NAMES[i]
+                        + ": " + diff + " min");
             }
         }
     }
 
-    // دالة جديدة لتحويل الإحداثيات لاسم مكان مفهوم
-    private String getLocationName(double latitude, double longitude) {
-        try {
-            // إذا كان الموقع قريب من القاهرة
-            if (isNearCairo(latitude, longitude)) {
-                return "القاهرة، مصر";
-            }
-
-            // إذا كان في مصر بشكل عام
-            if (isInEgypt(latitude, longitude)) {
-                return String.format(Locale.getDefault(), "مصر (%.4f, %.4f)", latitude, longitude);
-            }
+    // أوقات الموقع الحالي (أو الافتراضي) من الجدول المخزن أو بالحساب على الجهاز
+    private void loadLocalPrayerTimes() {
+        if (!showStoredPrayerTimes(currentLatitude, currentLongitude)) {
+            showComputedPrayerTimes(currentLatitude, currentLongitude);
+        }
+    }
 
-            // إذا كان في دولة عربية
-            String arabCountry = getArabCountry(latitude, longitude);
-            if (arabCountry != null) {
-                return String.format(Locale.getDefault(), "%s (%.4f, %.4f)", arabCountry, latitude, longitude);
-            }
+    private static long todayEpochDay() {
+        Calendar today = Calendar.getInstance();
+        return DayTimings.epochDay(today.get(Calendar.YEAR), today.get(Calendar.MONTH) + 1,
+                today.get(Calendar.DAY_OF_MONTH));
+    }
 
-            // إذا كان في دولة أجنبية معروفة
-            String foreignCountry = getForeignCountry(latitude, longitude);
-            if (foreignCountry != null) {
-                return String.format(Locale.getDefault(), "%s (%.4f, %.4f)", foreignCountry, latitude, longitude);
-            }
+    // استرجاع آخر موقع معروف حتى تظهر أوقات صحيحة في أول إطار
+    private void restoreLastLocation() {
+        LastLocation last = LastLocation.load(this);
+        if (last != null) {
+            currentLatitude = last.getLatitude();
+            currentLongitude = last.getLongitude();
+            hasLocationFix = true;
+        }
+    }
 
-            // عرض رسالة واضحة مع الإحداثيات
-            return String.format(Locale.getDefault(), "موقع غير محدد (%.4f, %.4f)", latitude, longitude);
+    private void saveLastLocation() {
+        LastLocation.save(this, currentLatitude, currentLongitude);
+        AdhanAlarmScheduler.scheduleAsync(this, null);
+    }
 
+    private void showComputedPrayerTimes(double latitude, double longitude) {
+        try {
+            long epochDay = todayEpochDay();
+            showDayTimings(calculator.computeDay(latitude, longitude, epochDay,
+                    DayTimings.localUtcOffsetMinutes(epochDay)));
         } catch (Exception e) {
-            return String.format(Locale.getDefault(), "%.4f, %.4f", latitude, longitude);
+            e.printStackTrace();
         }
     }
 
-    // إضافة دالة للدول الأجنبية المهمة
-    private String getForeignCountry(double lat, double lng) {
-        // أمريكا
-        if (lat >= 25.0 && lat <= 49.0 && lng >= -125.0 && lng <= -66.0) {
-            return "الولايات المتحدة";
-        }
-        // بريطانيا
-        if (lat >= 50.0 && lat <= 60.0 && lng >= -8.0 && lng <= 2.0) {
-            return "بريطانيا";
-        }
-        // فرنسا
-        if (lat >= 41.0 && lat <= 51.0 && lng >= -5.0 && lng <= 9.0) {
-            return "فرنسا";
-        }
-        // ألمانيا
-        if (lat >= 47.0 && lat <= 55.0 && lng >= 5.0 && lng <= 16.0) {
-            return "ألمانيا";
-        }
-        // إيطاليا
-        if (lat >= 36.0 && lat <= 47.0 && lng >= 6.0 && lng <= 19.0) {
-            return "إيطاليا";
-        }
-        // إسبانيا
-        if (lat >= 36.0 && lat <= 44.0 && lng >= -10.0 && lng <= 4.0) {
-            return "إسبانيا";
-        }
-        // تركيا
-        if (lat >= 36.0 && lat <= 42.0 && lng >= 26.0 && lng <= 45.0) {
-            return "تركيا";
-        }
-        // إيران
-        if (lat >= 25.0 && lat <= 40.0 && lng >= 44.0 && lng <= 63.0) {
-            return "إيران";
-        }
-        // الهند
-        if (lat >= 8.0 && lat <= 37.0 && lng >= 68.0 && lng <= 97.0) {
-            return "الهند";
-        }
-        // الصين
-        if (lat >= 18.0 && lat <= 54.0 && lng >= 73.0 && lng <= 135.0) {
-            return "الصين";
-        }
-        // اليابان
-        if (lat >= 24.0 && lat <= 46.0 && lng >= 123.0 && lng <= 146.0) {
-            return "اليابان";
-        }
-        // أستراليا
-        if (lat >= -44.0 && lat <= -10.0 && lng >= 113.0 && lng <= 154.0) {
-            return "أستراليا";
-        }
-        // كندا
-        if (lat >= 42.0 && lat <= 83.0 && lng >= -141.0 && lng <= -52.0) {
-            return "كندا";
-        }
-        // البرازيل
-        if (lat >= -34.0 && lat <= 5.0 && lng >= -74.0 && lng <= -32.0) {
-            return "البرازيل";
-        }
-        // روسيا
-        if (lat >= 41.0 && lat <= 82.0 && lng >= 19.0 && lng <= -169.0) {
-            return "روسيا";
+    private void updateCurrentTime(long now) {
+        if (tvCurrentTime == null) {
+            return;
         }
 
-        return null; // دولة غير معروفة
-    }
-
-    // فحص إذا كان الموقع قريب من القاهرة
-    private boolean isNearCairo(double lat, double lng) {
-        double cairoLat = 30.0444;
-        double cairoLng = 31.2357;
-        double distance = calculateDistance(lat, lng, cairoLat, cairoLng);
-        return distance < 50; // أقل من 50 كم من القاهرة
-    }
+        long secondOfDay = Math.floorMod((now + clockTimeZone.getOffset(now)) / 1000, 24 * 60 * 60L);
+        int hours = (int) (secondOfDay / 3600);
+        int minutes = (int) (secondOfDay / 60 % 60);
+        int seconds = (int) (secondOfDay % 60);
 
-    // فحص إذا كان الموقع في مصر
-    private boolean isInEgypt(double lat, double lng) {
-        return lat >= 22.0 && lat <= 31.7 && lng >= 25.0 && lng <= 37.0;
+        int i = CLOCK_PREFIX.length();
+        clockBuffer[i] = (char) ('0' + hours / 10);
+        clockBuffer[i + 1] = (char) ('0' + hours % 10);
+        clockBuffer[i + 3] = (char) ('0' + minutes / 10);
+        clockBuffer[i + 4] = (char) ('0' + minutes % 10);
+        clockBuffer[i + 6] = (char) ('0' + seconds / 10);
+        clockBuffer[i + 7] = (char) ('0' + seconds % 10);
+        tvCurrentTime.setText(clockBuffer, 0, clockBuffer.length);
     }
 
-    // تحديد الدولة العربية
-    private String getArabCountry(double lat, double lng) {
-        // السعودية
-        if (lat >= 16.0 && lat <= 32.0 && lng >= 34.0 && lng <= 56.0) {
-            return "السعودية";
-        }
-        // الإمارات
-        if (lat >= 22.0 && lat <= 26.5 && lng >= 51.0 && lng <= 57.0) {
-            return "الإمارات";
-        }
-        // الكويت
-        if (lat >= 28.5 && lat <= 30.1 && lng >= 46.5 && lng <= 48.5) {
-            return "الكويت";
-        }
-        // قطر
-        if (lat >= 24.4 && lat <= 26.2 && lng >= 50.7 && lng <= 51.7) {
-            return "قطر";
-        }
-        // البحرين
-        if (lat >= 25.5 && lat <= 26.7 && lng >= 50.3 && lng <= 50.8) {
-            return "البحرين";
-        }
-        // الأردن
-        if (lat >= 29.0 && lat <= 33.5 && lng >= 34.8 && lng <= 39.5) {
-            return "الأردن";
-        }
-        // لبنان
-        if (lat >= 33.0 && lat <= 34.7 && lng >= 35.0 && lng <= 36.7) {
-            return "لبنان";
-        }
-        // سوريا
-        if (lat >= 32.3 && lat <= 37.3 && lng >= 35.7 && lng <= 42.4) {
-            return "سوريا";
-        }
-        // العراق
-        if (lat >= 29.0 && lat <= 37.4 && lng >= 38.8 && lng <= 48.8) {
-            return "العراق";
-        }
-        // المغرب
-        if (lat >= 21.0 && lat <= 36.0 && lng >= -17.0 && lng <= -1.0) {
-            return "المغرب";
-        }
-        // الجزائر
-        if (lat >= 19.0 && lat <= 37.1 && lng >= -8.7 && lng <= 12.0) {
-            return "الجزائر";
-        }
-        // تونس
-        if (lat >= 30.2 && lat <= 37.5 && lng >= 7.5 && lng <= 11.6) {
-            return "تونس";
-        }
-        // ليبيا
-        if (lat >= 20.0 && lat <= 33.2 && lng >= 9.3 && lng <= 25.2) {
-            return "ليبيا";
-        }
-        // السودان
-        if (lat >= 8.7 && lat <= 22.0 && lng >= 21.8 && lng <= 38.6) {
-            return "السودان";
-        }
-        // عُمان
-        if (lat >= 16.6 && lat <= 26.4 && lng >= 51.1 && lng <= 60.0) {
-            return "عُمان";
+    // دالة جديدة لتحويل الإحداثيات لاسم مكان مفهوم
+    private String getLocationName(double latitude, double longitude) {
+        // الإحداثيات لا تتغير إلا عند الانتقال لخلية أوقات أخرى، فالاسم الأخير غالباً صالح
+        if (locationName != null && latitude == locationNameLatitude && longitude == locationNameLongitude) {
+            return locationName;
         }
-        // اليمن
-        if (lat >= 12.1 && lat <= 19.0 && lng >= 42.3 && lng <= 54.5) {
-            return "اليمن";
+        try {
+            locationName = LocationNames.describe(countryLocator, cityGazetteer, latitude, longitude, CITY_RADIUS_KM);
+            locationNameLatitude = latitude;
+            locationNameLongitude = longitude;
+            return locationName;
+        } catch (Exception e) {
+            return String.format(Locale.getDefault(), "%.4f, %.4f", latitude, longitude);
         }
-
-        return null; // ليس في دولة عربية معروفة
     }
 
-    // حساب المسافة بين نقطتين
-    private double calculateDistance(double lat1, double lng1, double lat2, double lng2) {
-        final int R = 6371; // نصف قطر الأرض بالكيلومتر
-
-        double latDistance = Math.toRadians(lat2 - lat1);
-        double lngDistance = Math.toRadians(lng2 - lng1);
-        double a = Math.sin(latDistance / 2) * Math.sin(latDistance / 2)
-                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
-                * Math.sin(lngDistance / 2) * Math.sin(lngDistance / 2);
-        double c = 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
-        return R * c;
+    /**
+     * فهارس الأماكن المشتركة (PlaceIndexes) تُحمّل مرة واحدة للعملية على خيط منفصل؛
+     * حتى تجهز تُعرض الإحداثيات ثم يُحدّث نص الموقع
+     */
+    private void loadPlaceIndexes() {
+        placeIndexLoader.execute(() -> {
+            PlaceIndexes indexes = PlaceIndexes.getInstance(MainActivity.this);
+            runOnUiThread(() -> {
+                if (isDestroyed()) {
+                    return;
+                }
+                countryLocator = indexes.getCountryLocator();
+                cityGazetteer = indexes.getCityGazetteer();
+                // الاسم المحفوظ حُسب بدون الفهارس
+                locationName = null;
+                if (hasLocationFix && locationHelper != null) {
+                    updateConnectivityStatus(locationHelper.isInternetAvailable(), locationHelper.isLocationEnabled());
+                }
+            });
+        });
     }
 
     @Override
@@ -825,20 +827,21 @@ public class MainActivity extends AppCompatActivity {
             // إعادة فحص الاتصال والموقع عند العودة للتطبيق
             checkConnectivityAndLocation();
 
-            // إعادة محاولة الحصول على الموقع إذا كان لا يزال افتراضياً
-            if (currentLatitude == 30.0444 && currentLongitude == 31.2357) {
+            // استئناف طلب الموقع الذي أُوقف عند المغادرة، أو إعادة المحاولة إذا كان لا يزال افتراضياً
+            if (resumeLocationRequest) {
+                resumeLocationRequest = false;
+                getUserLocation();
+            } else if (!hasLocationFix && locationStrategy != null && !locationStrategy.isRunning()) {
                 new Handler().postDelayed(() -> {
-                    if (locationHelper.isLocationEnabled()) {
+                    if (locationHelper.isLocationEnabled() && !locationStrategy.isRunning()) {
                         getUserLocation();
                     }
                 }, 1000); // انتظار ثانية واحدة
             }
 
-            // إعادة تشغيل مؤقت الوقت إذا توقف
-            if (timeHandler != null && timeRunnable != null) {
-                timeHandler.removeCallbacks(timeRunnable);
-                timeHandler.post(timeRunnable);
-            }
+            // إعادة تشغيل مؤقت الوقت إذا توقف، ومتابعة تغيير المنطقة الزمنية أثناء ظهور النشاط
+            registerReceiver(timeZoneReceiver, new IntentFilter(Intent.ACTION_TIMEZONE_CHANGED));
+            restartClock();
         } catch (Exception e) {
             e.printStackTrace();
         }
@@ -849,9 +852,17 @@ public class MainActivity extends AppCompatActivity {
         super.onPause();
         try {
             // إيقاف مؤقت الوقت لتوفير البطارية
+            unregisterReceiver(timeZoneReceiver);
             if (timeHandler != null && timeRunnable != null) {
                 timeHandler.removeCallbacks(timeRunnable);
             }
+            if (nextPrayerScheduler != null) {
+                nextPrayerScheduler.stop();
+            }
+            // لا GPS في الخلفية: الطلب الجاري يُلغى ويُستأنف في onResume
+            if (locationStrategy != null) {
+                resumeLocationRequest = locationStrategy.cancel();
+            }
         } catch (Exception e) {
             e.printStackTrace();
         }
@@ -861,15 +872,22 @@ public class MainActivity extends AppCompatActivity {
     protected void onDestroy() {
         super.onDestroy();
         try {
-            // إلغاء تسجيل مستمع الشبكة
-            if (connectivityReceiver != null) {
-                unregisterReceiver(connectivityReceiver);
+            // إلغاء الاشتراك في تغيرات الشبكة
+            if (connectivityListener != null) {
+                ConnectivityMonitor.getInstance(this).removeListener(connectivityListener);
             }
 
             // تنظيف الموارد
             if (timeHandler != null && timeRunnable != null) {
                 timeHandler.removeCallbacks(timeRunnable);
             }
+            if (nextPrayerScheduler != null) {
+                nextPrayerScheduler.stop();
+            }
+            if (locationStrategy != null) {
+                locationStrategy.cancel();
+            }
+            placeIndexLoader.shutdown();
 
             // إغلاق أي حوارات مفتوحة
             if (connectivityDialog != null && connectivityDialog.isShowing()) {
@@ -0,0 +1,95 @@
+package com.ebaa.prayermate;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import java.util.TimeZone;
+
+/**
+ * يحدد الصلاة القادمة من جدول اليوم ويضبط تنبيهاً واحداً في لحظة الانتقال التالية
+ * (الصلاة القادمة أو منتصف الليل) بدلاً من فحص الوقت كل ثانية.
+ */
+public class NextPrayerScheduler {
+
+    public interface Listener {
+        void onNextPrayerChanged(int prayer);
+
+        // بدأ يوم جديد ويجب تحميل جدوله ثم استدعاء setTimings
+        void onNewDay();
+    }
+
+    private static final long DAY_MILLIS = 24 * 60 * 60 * 1000L;
+    // هامش صغير حتى تكون الدقيقة الحالية قد تجاوزت وقت الصلاة عند التنفيذ
+    private static final long TRANSITION_SLACK_MS = 50;
+
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final Runnable transition = this::reschedule;
+    private final Runnable newDay = this::notifyNewDay;
+    private final Listener listener;
+
+    private DayTimings timings;
+    private boolean running = false;
+    // آخر يوم طُلب جدوله من المستمع، حتى لا يُطلب نفس اليوم مرة أخرى إذا لم يتوفر
+    private long requestedDay = Long.MIN_VALUE;
+
+    public NextPrayerScheduler(Listener listener) {
+        this.listener = listener;
+    }
+
+    public void setTimings(DayTimings timings) {
+        this.timings = timings;
+        if (running) {
+            reschedule();
+        }
+    }
+
+    public void start() {
+        running = true;
+        requestedDay = Long.MIN_VALUE;
+        reschedule();
+    }
+
+    public void stop() {
+        running = false;
+        handler.removeCallbacks(transition);
+        handler.removeCallbacks(newDay);
+    }
+
+    private void reschedule() {
+        handler.removeCallbacks(transition);
+        if (timings == null || !running) {
+            return;
+        }
+
+        // المنطقة الزمنية تُقرأ في كل مرة لأنها قد تتغير في أي وقت (سفر أو ضبط يدوي)
+        long now = System.currentTimeMillis();
+        int offset = TimeZone.getDefault().getOffset(now);
+        long localMillis = now + offset;
+        long today = Math.floorDiv(localMillis, DAY_MILLIS);
+
+        // الدقيقة من منتصف ليل يوم الجدول: بعد منتصف الليل تتجاوز 1440، فيبقى جدول
+        // الأمس فعالاً حتى يمر عشاؤه إذا كان بعد منتصف الليل
+        long minute = Math.floorDiv(localMillis - timings.getEpochDay() * DAY_MILLIS, 60_000L);
+        int next = minute < 2 * 24 * 60 ? timings.nextAfter((int) minute, true) : -1;
+
+        // الطلب يُرسل بعد انتهاء هذا الاستدعاء لأن المستمع يستدعي setTimings من داخله
+        if (next < 0 && timings.getEpochDay() < today && requestedDay != today) {
+            requestedDay = today;
+            handler.post(newDay);
+            return;
+        }
+        listener.onNextPrayerChanged(next >= 0 ? next : PrayerTimesCalculator.FAJR);
+
+        // بعد العشاء ننتظر منتصف الليل لتحميل جدول اليوم التالي
+        long target = next >= 0
+                ? timings.getEpochMillis(next)
+                : (today + 1) * DAY_MILLIS - offset;
+        handler.postDelayed(transition, Math.max(0, target - now) + TRANSITION_SLACK_MS);
+    }
+
+    private void notifyNewDay() {
+        if (running) {
+            listener.onNewDay();
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.ebaa.prayermate;
+
+import android.content.Context;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * فهرس الدول وفهرس المدن مشتركان على مستوى العملية: يُحمّلان مرة واحدة ويبقيان
+ * بعد إعادة إنشاء النشاط، والقفل يمنع بناء cities.kdt من أكثر من خيط في نفس الوقت.
+ * أول استدعاء لـ getInstance يقرأ الملفات، لذلك يجب أن يكون خارج الخيط الرئيسي.
+ */
+public class PlaceIndexes {
+
+    private static PlaceIndexes instance;
+
+    private final CountryLocator countryLocator;
+    private final CityGazetteer cityGazetteer;
+
+    public static synchronized PlaceIndexes getInstance(Context context) {
+        if (instance == null) {
+            instance = new PlaceIndexes(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    private PlaceIndexes(Context context) {
+        countryLocator = loadCountryLocator(context);
+        cityGazetteer = openCityGazetteer(context);
+    }
+
+    /**
+     * @return فهرس الدول أو null إذا تعذرت قراءته
+     */
+    public CountryLocator getCountryLocator() {
+        return countryLocator;
+    }
+
+    /**
+     * @return فهرس المدن أو null إذا تعذر بناؤه
+     */
+    public CityGazetteer getCityGazetteer() {
+        return cityGazetteer;
+    }
+
+    private static CountryLocator loadCountryLocator(Context context) {
+        try (InputStream input = context.getAssets().open(CountryLocator.ASSET_NAME)) {
+            return CountryLocator.load(input);
+        } catch (IOException e) {
+            // بدون البيانات يتم عرض الإحداثيات فقط
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    // فهرس المدن يُبنى من assets في أول تشغيل بعد التثبيت أو التحديث
+    private static CityGazetteer openCityGazetteer(Context context) {
+        try {
+            File index = new File(context.getFilesDir(), CityGazetteer.INDEX_NAME);
+            long installed = context.getPackageManager().getPackageInfo(context.getPackageName(), 0).lastUpdateTime;
+            if (!index.exists() || index.lastModified() < installed) {
+                File temp = new File(context.getFilesDir(), CityGazetteer.INDEX_NAME + ".tmp");
+                try (InputStream input = context.getAssets().open(CityGazetteer.ASSET_NAME);
+                     OutputStream output = new BufferedOutputStream(new FileOutputStream(temp))) {
+                    CityGazetteer.build(input, output);
+                }
+                if (!temp.renameTo(index)) {
+                    throw new IOException("Failed to install " + index);
+                }
+            }
+            return CityGazetteer.open(index);
+        } catch (Exception e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+}
@@ -1,61 +1,63 @@
 package com.ebaa.prayermate;
 
+/**
+ * صف ثابت (immutable) في قائمة الصلوات. أي تغيير يعني إنشاء قائمة جديدة
+ * وإرسالها لـ PrayerTimesAdapter.submitList ليحسب الفروق في الخلفية.
+ */
 public class PrayerTime {
-    private String name;
-    private String time;
-    private String emoji; // تغيير من iconResId إلى emoji للإيموجي
-    private int iconResId; // للاحتفاظ بالخاصية القديمة للتوافق
+    private final int prayer; // ترتيب الصلاة (PrayerTimesCalculator.FAJR...) وهو المعرف الثابت للصف
+    private final String name;
+    private final int minuteOfDay; // دقائق منذ منتصف الليل، يتم تنسيقها كنص فقط عند العرض
+    private final String emoji; // تغيير من iconResId إلى emoji للإيموجي
+    private final int iconResId; // للاحتفاظ بالخاصية القديمة للتوافق
+    private final boolean next; // الصلاة القادمة تظهر مميزة
 
     // Constructor جديد للإيموجي
-    public PrayerTime(String name, String time, String emoji) {
+    public PrayerTime(int prayer, String name, int minuteOfDay, String emoji, boolean next) {
+        this.prayer = prayer;
         this.name = name;
-        this.time = time;
+        this.minuteOfDay = minuteOfDay;
         this.emoji = emoji;
         this.iconResId = 0; // default value
+        this.next = next;
     }
 
     // Constructor قديم للتوافق
-    public PrayerTime(String name, String time, int iconResId) {
+    public PrayerTime(int prayer, String name, int minuteOfDay, int iconResId, boolean next) {
+        this.prayer = prayer;
         this.name = name;
-        this.time = time;
+        this.minuteOfDay = minuteOfDay;
         this.iconResId = iconResId;
         this.emoji = "🕌"; // default emoji
+        this.next = next;
     }
 
-    public String getName() {
-        return name;
-    }
-
-    public void setName(String name) {
-        this.name = name;
+    public int getPrayer() {
+        return prayer;
     }
 
-    public String getTime() {
-        return time;
+    public String getName() {
+        return name;
     }
 
-    public void setTime(String time) {
-        this.time = time;
+    public int getMinuteOfDay() {
+        return minuteOfDay;
     }
 
     public String getEmoji() {
         return emoji;
     }
 
-    public void setEmoji(String emoji) {
-        this.emoji = emoji;
-    }
-
     public int getIconResId() {
         return iconResId;
     }
 
-    public void setIconResId(int iconResId) {
-        this.iconResId = iconResId;
+    public boolean isNext() {
+        return next;
     }
 
     // Helper method to check if using emoji or icon
     public boolean hasEmoji() {
         return emoji != null && !emoji.isEmpty() && !emoji.equals("🕌");
     }
-}
\ No newline at end of file
+}
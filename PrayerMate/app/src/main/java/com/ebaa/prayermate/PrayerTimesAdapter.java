@@ -7,16 +7,57 @@ import android.widget.ImageView;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
+import androidx.cardview.widget.CardView;
+import androidx.core.content.ContextCompat;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 
 import java.util.List;
 
-public class PrayerTimesAdapter extends RecyclerView.Adapter<PrayerTimesAdapter.PrayerViewHolder> {
+/**
+ * قائمة الصلوات كـ ListAdapter: كل تحديث قائمة جديدة تُقارن بالقديمة في الخلفية
+ * (AsyncListDiffer)، فلا يُعاد ربط إلا الصفوف التي تغيرت. تغير الصلاة القادمة
+ * فقط يُرسل كـ payload يغير لون البطاقة بدون إعادة ربط الاسم والوقت.
+ */
+public class PrayerTimesAdapter extends ListAdapter<PrayerTime, PrayerTimesAdapter.PrayerViewHolder> {
 
-    private List<PrayerTime> prayerTimes;
+    private static final Object PAYLOAD_HIGHLIGHT = new Object();
 
-    public PrayerTimesAdapter(List<PrayerTime> prayerTimes) {
-        this.prayerTimes = prayerTimes;
+    private static final DiffUtil.ItemCallback<PrayerTime> DIFF = new DiffUtil.ItemCallback<PrayerTime>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull PrayerTime oldItem, @NonNull PrayerTime newItem) {
+            return oldItem.getPrayer() == newItem.getPrayer();
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull PrayerTime oldItem, @NonNull PrayerTime newItem) {
+            return sameContent(oldItem, newItem) && oldItem.isNext() == newItem.isNext();
+        }
+
+        @Override
+        public Object getChangePayload(@NonNull PrayerTime oldItem, @NonNull PrayerTime newItem) {
+            // null يعني إعادة ربط كاملة
+            return sameContent(oldItem, newItem) ? PAYLOAD_HIGHLIGHT : null;
+        }
+
+        private boolean sameContent(PrayerTime oldItem, PrayerTime newItem) {
+            return oldItem.getMinuteOfDay() == newItem.getMinuteOfDay()
+                    && oldItem.getIconResId() == newItem.getIconResId()
+                    && oldItem.getName().equals(newItem.getName())
+                    && oldItem.getEmoji().equals(newItem.getEmoji());
+        }
+    };
+
+    public PrayerTimesAdapter() {
+        super(DIFF);
+        // كل صلاة لها نفس الصف دائماً، فتعمل الحركات بين التحديثات بشكل صحيح
+        setHasStableIds(true);
+    }
+
+    @Override
+    public long getItemId(int position) {
+        return getItem(position).getPrayer();
     }
 
     @NonNull
@@ -27,12 +68,23 @@ public class PrayerTimesAdapter extends RecyclerView.Adapter<PrayerTimesAdapter.
         return new PrayerViewHolder(view);
     }
 
+    @Override
+    public void onBindViewHolder(@NonNull PrayerViewHolder holder, int position, @NonNull List<Object> payloads) {
+        if (!payloads.isEmpty() && allHighlight(payloads)) {
+            bindHighlight(holder, getItem(position));
+        } else {
+            onBindViewHolder(holder, position);
+        }
+    }
+
     @Override
     public void onBindViewHolder(@NonNull PrayerViewHolder holder, int position) {
-        PrayerTime prayerTime = prayerTimes.get(position);
+        PrayerTime prayerTime = getItem(position);
 
         holder.tvPrayerName.setText(prayerTime.getName());
-        holder.tvPrayerTime.setText(prayerTime.getTime());
+        // تنسيق الوقت في مخزن الحروف الخاص بالصف بدون إنشاء نص جديد
+        DayTimings.formatMinutes(prayerTime.getMinuteOfDay(), holder.timeBuffer);
+        holder.tvPrayerTime.setText(holder.timeBuffer, 0, holder.timeBuffer.length);
 
         // استخدام الإيموجي بدلاً من الأيقونة
         if (prayerTime.hasEmoji()) {
@@ -46,23 +98,38 @@ public class PrayerTimesAdapter extends RecyclerView.Adapter<PrayerTimesAdapter.
             holder.tvPrayerEmoji.setVisibility(View.GONE);
             holder.ivPrayerIcon.setImageResource(prayerTime.getIconResId());
         }
+
+        bindHighlight(holder, prayerTime);
     }
 
-    @Override
-    public int getItemCount() {
-        return prayerTimes.size();
+    private static void bindHighlight(PrayerViewHolder holder, PrayerTime prayerTime) {
+        int color = prayerTime.isNext() ? R.color.info_background : R.color.card_background;
+        holder.card.setCardBackgroundColor(ContextCompat.getColor(holder.card.getContext(), color));
+    }
+
+    private static boolean allHighlight(List<Object> payloads) {
+        for (Object payload : payloads) {
+            if (payload != PAYLOAD_HIGHLIGHT) {
+                return false;
+            }
+        }
+        return true;
     }
 
     static class PrayerViewHolder extends RecyclerView.ViewHolder {
+        CardView card;
         ImageView ivPrayerIcon;
         TextView tvPrayerName, tvPrayerTime, tvPrayerEmoji;
+        // TextView يحتفظ بمرجع للمصفوفة، لذلك لكل صف مخزنه الخاص
+        final char[] timeBuffer = new char[5];
 
         public PrayerViewHolder(@NonNull View itemView) {
             super(itemView);
+            card = (CardView) itemView;
             ivPrayerIcon = itemView.findViewById(R.id.ivPrayerIcon);
             tvPrayerName = itemView.findViewById(R.id.tvPrayerName);
             tvPrayerTime = itemView.findViewById(R.id.tvPrayerTime);
             tvPrayerEmoji = itemView.findViewById(R.id.tvPrayerEmoji);
         }
     }
-}
\ No newline at end of file
+}
@@ -5,10 +5,29 @@ import retrofit2.http.GET;
 import retrofit2.http.Query;
 
 public interface PrayerTimesApi {
-    @GET("timings")
-    Call<PrayerTimesResponse> getPrayerTimes(
+    // نفس طريقة PrayerTimesCalculator.egyptian(): الهيئة المصرية والعصر الشافعي
+    int METHOD_EGYPTIAN = 5;
+    int SCHOOL_SHAFI = 0;
+
+    // أوقات شهر كامل في طلب واحد
+    @GET("calendar")
+    Call<PrayerTimesResponse.Calendar> getMonthlyCalendar(
+            @Query("latitude") double latitude,
+            @Query("longitude") double longitude,
+            @Query("month") int month,
+            @Query("year") int year,
+            @Query("method") int method,
+            @Query("school") int school
+    );
+
+    // أوقات سنة كاملة في طلب واحد
+    @GET("calendar")
+    Call<PrayerTimesResponse.AnnualCalendar> getYearlyCalendar(
             @Query("latitude") double latitude,
             @Query("longitude") double longitude,
-            @Query("date") String date
+            @Query("year") int year,
+            @Query("annual") boolean annual,
+            @Query("method") int method,
+            @Query("school") int school
     );
 }
\ No newline at end of file
@@ -2,6 +2,7 @@ package com.ebaa.prayermate;
 
 import android.content.Context;
 import android.content.SharedPreferences;
+import android.content.pm.ApplicationInfo;
 import android.hardware.GeomagneticField;
 import android.hardware.Sensor;
 import android.hardware.SensorEvent;
@@ -9,123 +10,100 @@ import android.hardware.SensorEventListener;
 import android.hardware.SensorManager;
 import android.os.Bundle;
 import android.os.Handler;
+import android.os.HandlerThread;
 import android.os.Looper;
-import android.view.animation.Animation;
-import android.view.animation.AccelerateDecelerateInterpolator;
-import android.view.animation.RotateAnimation;
-import android.widget.ImageView;
+import android.os.Process;
+import android.os.SystemClock;
 import android.widget.TextView;
 import android.widget.Toast;
 
 import androidx.appcompat.app.AlertDialog;
 import androidx.appcompat.app.AppCompatActivity;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class QiblaActivity extends AppCompatActivity implements SensorEventListener {
 
-    private ImageView compassImage, qiblaArrow;
+    private CompassView compassView;
     private TextView tvDirection, tvDegree;
 
     private SensorManager sensorManager;
-    private Sensor accelerometer, magnetometer, rotationVectorSensor;
+    private Sensor accelerometer, magnetometer, gyroscope, rotationVectorSensor;
 
-    private float[] gravity, geomagnetic;
-    private float azimuth = 0f;
-    private float currentAzimuth = 0f;
-
-    // نظام القراءات المحسن
-    private static class CompassReading {
-        float azimuth;
-        long timestamp;
-        float accuracy;
-
-        CompassReading(float azimuth, long timestamp, float accuracy) {
-            this.azimuth = azimuth;
-            this.timestamp = timestamp;
-            this.accuracy = Math.max(0.1f, accuracy);
-        }
-    }
-
-    private List<CompassReading> readings = new ArrayList<>();
-    private static final int MAX_READINGS = 15;
-    private static final float MIN_CHANGE = 3.0f;
-
-    // Kalman Filter مبسط
-    private static class SimpleKalmanFilter {
-        private float estimate = 0;
-        private float errorCovariance = 1;
-        private final float processNoise = 0.008f;
-        private final float measurementNoise = 0.1f;
-        private boolean initialized = false;
-
-        public float update(float measurement) {
-            if (!initialized) {
-                estimate = measurement;
-                initialized = true;
-                return estimate;
-            }
-
-            // Prediction
-            errorCovariance += processNoise;
+    // المستشعرات والترشيح تعمل على خيط منفصل؛ الواجهة تستقبل الاتجاه النهائي فقط
+    private HandlerThread sensorThread;
+    private Handler sensorHandler;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
 
-            // Handle circular nature of angles
-            float innovation = measurement - estimate;
-            if (innovation > 180) innovation -= 360;
-            if (innovation < -180) innovation += 360;
+    // خانة واحدة بين الخيطين: أحدث اتجاه يستبدل السابق إذا لم تقرأه الواجهة بعد
+    private static final int NO_HEADING = Float.floatToRawIntBits(Float.NaN);
+    private final AtomicInteger pendingHeading = new AtomicInteger(NO_HEADING);
+    private final Runnable publishHeading = this::applyPendingHeading;
+    private boolean hasHeading = false;
 
-            // Update
-            float kalmanGain = errorCovariance / (errorCovariance + measurementNoise);
-            estimate = estimate + kalmanGain * innovation;
-            estimate = (estimate + 360) % 360;
-            errorCovariance = (1 - kalmanGain) * errorCovariance;
+    // مسار الترشيح كاملاً (خيط المستشعرات فقط بعد إنشائه في setupSensors)
+    private CompassPipeline pipeline;
 
-            return estimate;
-        }
-    }
+    // تسجيل أحداث المستشعرات لإعادة تشغيلها خارج الهاتف (خيط المستشعرات فقط)
+    private SensorRecorder recorder;
+    private volatile boolean isRecording = false;
 
-    private SimpleKalmanFilter kalmanFilter = new SimpleKalmanFilter();
+    private float azimuth = 0f;
 
     private double userLatitude, userLongitude;
     private double qiblaDirection = 0;
     private double qiblaDistance = 0;
 
-    // إحداثيات الكعبة المشرفة (دقيقة)
-    private static final double KAABA_LATITUDE = 21.4224779;
-    private static final double KAABA_LONGITUDE = 39.8251832;
-
-    private int sensorAccuracy = SensorManager.SENSOR_STATUS_UNRELIABLE;
+    private volatile int sensorAccuracy = SensorManager.SENSOR_STATUS_UNRELIABLE;
 
-    // متغيرات للتحكم في التحديث
-    private long lastUpdateTime = 0;
-    private long lastAnimationTime = 0;
-    private static final int UPDATE_INTERVAL = 200;
-    private static final int ANIMATION_COOLDOWN = 600;
+    // معدل القراءات الفعلي (قراءة/ثانية) للعرض في الإحصائيات
+    private volatile float headingRate = 0f;
+    private long lastHeadingNanos = 0;
 
     // متغيرات لتتبع اتجاه القبلة
     private float qiblaAngleDifference = 0f;
     private boolean isPointingToQibla = false;
     private static final float QIBLA_ACCURACY_RANGE = 8.0f;
 
-    // متغيرات المعايرة
-    private boolean isCalibrating = false;
+    // متغيرات المعايرة: قراءات المغناطيس الخام (x, y, z متتالية) أثناء حركة الرقم 8
+    private boolean isCalibrating = false; // خيط المستشعرات فقط
     private long calibrationStartTime = 0;
-    private List<Float> calibrationReadings = new ArrayList<>();
-    private float calibrationOffset = 0f;
+    private static final int MAX_CALIBRATION_SAMPLES = 1500;
+    private final float[] calibrationSamples = new float[MAX_CALIBRATION_SAMPLES * 3];
+    private int calibrationCount = 0;
+    private int calibrationProgress = 0;
+    private static final String CALIBRATION_KEY = "magnetometer_calibration_";
+
+    // نموذج المعايرة الحالي يُستبدل كاملاً بعد كل ملاءمة؛ التصحيح يتم لكل قراءة مغناطيس
+    private volatile MagnetometerCalibration magnetometerCalibration = MagnetometerCalibration.IDENTITY;
+
+    // ملاءمة القطع الناقص تعمل خارج خيط المستشعرات حتى لا تتأخر البوصلة
+    private final ExecutorService calibrationExecutor = Executors.newSingleThreadExecutor();
 
     // نوع المستشعر المستخدم
-    private static final int SENSOR_TYPE_ROTATION = 1;
-    private static final int SENSOR_TYPE_MAGNETIC = 2;
+    private static final int SENSOR_TYPE_ROTATION = CompassPipeline.MODE_ROTATION;
+    private static final int SENSOR_TYPE_MAGNETIC = CompassPipeline.MODE_MAGNETIC;
+    private static final int SENSOR_TYPE_FUSION = CompassPipeline.MODE_FUSION;
     private int activeSensorType = 0;
 
     // تصحيح الانحراف المغناطيسي
-    private float magneticDeclination = 0f;
+    private volatile float magneticDeclination = 0f;
 
     // مراقبة جودة الإشارة
-    private float signalVariance = 0f;
+    private volatile float signalDeviation = 0f; // بالدرجات
     private long lastQualityCheck = 0;
 
+    // آخر قيم معروضة: النصوص تُبنى فقط عند تغير ما يظهر للمستخدم
+    private int displayedAzimuthTenths = Integer.MIN_VALUE;
+    private boolean displayedPointingToQibla;
+    private String displayedAccuracy;
+
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
@@ -134,6 +112,7 @@ public class QiblaActivity extends AppCompatActivity implements SensorEventListe
         try {
             initViews();
             setupToolbar();
+            setupScreenTouchListeners();
             loadCalibrationData();
             setupSensors();
             getLocationData();
@@ -148,8 +127,7 @@ public class QiblaActivity extends AppCompatActivity implements SensorEventListe
     }
 
     private void initViews() {
-        compassImage = findViewById(R.id.compassImage);
-        qiblaArrow = findViewById(R.id.qiblaArrow);
+        compassView = findViewById(R.id.compassView);
         tvDirection = findViewById(R.id.tvDirection);
         tvDegree = findViewById(R.id.tvDegree);
     }
@@ -167,7 +145,28 @@ public class QiblaActivity extends AppCompatActivity implements SensorEventListe
 
     private void loadCalibrationData() {
         SharedPreferences prefs = getSharedPreferences("compass", MODE_PRIVATE);
-        calibrationOffset = prefs.getFloat("calibration_offset", 0f);
+
+        // إزاحة الزاوية القديمة لم تكن معايرة حقيقية
+        if (prefs.contains("calibration_offset")) {
+            prefs.edit().remove("calibration_offset").apply();
+        }
+
+        if (prefs.contains(CALIBRATION_KEY + 0)) {
+            float[] parameters = new float[MagnetometerCalibration.PARAMETER_COUNT];
+            for (int i = 0; i < parameters.length; i++) {
+                parameters[i] = prefs.getFloat(CALIBRATION_KEY + i, 0f);
+            }
+            magnetometerCalibration = new MagnetometerCalibration(parameters);
+        }
+    }
+
+    private void saveCalibrationData(MagnetometerCalibration calibration) {
+        SharedPreferences.Editor editor = getSharedPreferences("compass", MODE_PRIVATE).edit();
+        float[] parameters = calibration.getParameters();
+        for (int i = 0; i < parameters.length; i++) {
+            editor.putFloat(CALIBRATION_KEY + i, parameters[i]);
+        }
+        editor.apply();
     }
 
     private void setupSensors() {
@@ -176,28 +175,40 @@ public class QiblaActivity extends AppCompatActivity implements SensorEventListe
             rotationVectorSensor = sensorManager.getDefaultSensor(Sensor.TYPE_ROTATION_VECTOR);
             accelerometer = sensorManager.getDefaultSensor(Sensor.TYPE_ACCELEROMETER);
             magnetometer = sensorManager.getDefaultSensor(Sensor.TYPE_MAGNETIC_FIELD);
+            gyroscope = sensorManager.getDefaultSensor(Sensor.TYPE_GYROSCOPE);
 
             // تحديد نوع المستشعر المفضل
-            if (rotationVectorSensor != null) {
+            if (gyroscope != null && magnetometer != null && accelerometer != null) {
+                activeSensorType = SENSOR_TYPE_FUSION;
+            } else if (rotationVectorSensor != null) {
                 activeSensorType = SENSOR_TYPE_ROTATION;
             } else if (magnetometer != null && accelerometer != null) {
                 activeSensorType = SENSOR_TYPE_MAGNETIC;
             } else {
                 showStaticCompass();
+                return;
             }
+
+            pipeline = new CompassPipeline(activeSensorType);
+            pipeline.setCalibration(magnetometerCalibration);
+
+            sensorThread = new HandlerThread("QiblaSensors", Process.THREAD_PRIORITY_DISPLAY);
+            sensorThread.start();
+            sensorHandler = new Handler(sensorThread.getLooper());
         }
     }
 
     private void showInstructions() {
         String instructions = "📱 امسك الهاتف بشكل أفقي\n" +
                 "🧭 اتبع السهم الأحمر للقبلة\n" +
-                "⚙️ اضغط مطولاً للمعايرة";
+                "⚙️ اضغط مطولاً للمعايرة\n" +
+                "📋 اضغط على الاتجاه لخيارات البوصلة";
 
         Toast.makeText(this, instructions, Toast.LENGTH_LONG).show();
 
         // إضافة إمكانية المعايرة
-        if (compassImage != null) {
-            compassImage.setOnLongClickListener(v -> {
+        if (compassView != null) {
+            compassView.setOnLongClickListener(v -> {
                 startCalibration();
                 return true;
             });
@@ -212,20 +223,12 @@ public class QiblaActivity extends AppCompatActivity implements SensorEventListe
     // حساب اتجاه القبلة بدقة عالية
     private void calculateQiblaDirectionPrecise() {
         try {
-            double lat1 = Math.toRadians(userLatitude);
-            double lon1 = Math.toRadians(userLongitude);
-            double lat2 = Math.toRadians(KAABA_LATITUDE);
-            double lon2 = Math.toRadians(KAABA_LONGITUDE);
-
-            double deltaLon = lon2 - lon1;
-
             // استخدام Great Circle calculation للدقة العالية
-            double y = Math.sin(deltaLon) * Math.cos(lat2);
-            double x = Math.cos(lat1) * Math.sin(lat2) -
-                    Math.sin(lat1) * Math.cos(lat2) * Math.cos(deltaLon);
+            qiblaDirection = GeoMath.qiblaBearing(userLatitude, userLongitude);
 
-            qiblaDirection = Math.toDegrees(Math.atan2(y, x));
-            qiblaDirection = (qiblaDirection + 360) % 360;
+            if (compassView != null) {
+                compassView.setQiblaDirection((float) qiblaDirection);
+            }
 
             calculateQiblaDistance();
         } catch (Exception e) {
@@ -237,21 +240,7 @@ public class QiblaActivity extends AppCompatActivity implements SensorEventListe
     private void calculateQiblaDistance() {
         try {
             // استخدام Haversine formula
-            double R = 6371.0; // نصف قطر الأرض بالكيلومتر
-            double lat1 = Math.toRadians(userLatitude);
-            double lon1 = Math.toRadians(userLongitude);
-            double lat2 = Math.toRadians(KAABA_LATITUDE);
-            double lon2 = Math.toRadians(KAABA_LONGITUDE);
-
-            double deltaLat = lat2 - lat1;
-            double deltaLon = lon2 - lon1;
-
-            double a = Math.sin(deltaLat/2) * Math.sin(deltaLat/2) +
-                    Math.cos(lat1) * Math.cos(lat2) *
-                            Math.sin(deltaLon/2) * Math.sin(deltaLon/2);
-            double c = 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1-a));
-
-            qiblaDistance = R * c;
+            qiblaDistance = GeoMath.qiblaDistanceKm(userLatitude, userLongitude);
         } catch (Exception e) {
             e.printStackTrace();
             qiblaDistance = 0;
@@ -270,6 +259,9 @@ public class QiblaActivity extends AppCompatActivity implements SensorEventListe
                 );
 
                 magneticDeclination = geoField.getDeclination();
+                if (pipeline != null) {
+                    pipeline.setMagneticDeclination(magneticDeclination);
+                }
             }
         } catch (Exception e) {
             e.printStackTrace();
@@ -281,14 +273,10 @@ public class QiblaActivity extends AppCompatActivity implements SensorEventListe
         try {
             Toast.makeText(this, "البوصلة المغناطيسية غير متوفرة\nسيتم عرض اتجاه القبلة الثابت", Toast.LENGTH_LONG).show();
 
-            if (qiblaArrow != null) {
-                RotateAnimation qiblaAnimation = new RotateAnimation(
-                        0, (float) qiblaDirection,
-                        Animation.RELATIVE_TO_SELF, 0.5f,
-                        Animation.RELATIVE_TO_SELF, 0.5f);
-                qiblaAnimation.setDuration(1000);
-                qiblaAnimation.setFillAfter(true);
-                qiblaArrow.startAnimation(qiblaAnimation);
+            // بدون مستشعرات يبقى القرص على الشمال والسهم على زاوية القبلة
+            if (compassView != null) {
+                compassView.setQiblaDirection((float) qiblaDirection);
+                compassView.setHeading(0f);
             }
 
             updateStaticDisplay();
@@ -322,14 +310,21 @@ public class QiblaActivity extends AppCompatActivity implements SensorEventListe
         super.onResume();
         try {
             if (sensorManager != null && activeSensorType != 0) {
-                if (activeSensorType == SENSOR_TYPE_ROTATION) {
+                if (activeSensorType == SENSOR_TYPE_FUSION) {
+                    sensorManager.registerListener(this, gyroscope,
+                            SensorManager.SENSOR_DELAY_GAME, sensorHandler);
+                    sensorManager.registerListener(this, accelerometer,
+                            SensorManager.SENSOR_DELAY_GAME, sensorHandler);
+                    sensorManager.registerListener(this, magnetometer,
+                            SensorManager.SENSOR_DELAY_GAME, sensorHandler);
+                } else if (activeSensorType == SENSOR_TYPE_ROTATION) {
                     sensorManager.registerListener(this, rotationVectorSensor,
-                            SensorManager.SENSOR_DELAY_GAME);
+                            SensorManager.SENSOR_DELAY_GAME, sensorHandler);
                 } else if (activeSensorType == SENSOR_TYPE_MAGNETIC) {
                     sensorManager.registerListener(this, accelerometer,
-                            SensorManager.SENSOR_DELAY_GAME);
+                            SensorManager.SENSOR_DELAY_GAME, sensorHandler);
                     sensorManager.registerListener(this, magnetometer,
-                            SensorManager.SENSOR_DELAY_GAME);
+                            SensorManager.SENSOR_DELAY_GAME, sensorHandler);
                 }
             } else {
                 showStaticCompass();
@@ -346,42 +341,35 @@ public class QiblaActivity extends AppCompatActivity implements SensorEventListe
             if (sensorManager != null) {
                 sensorManager.unregisterListener(this);
             }
+            mainHandler.removeCallbacks(publishHeading);
         } catch (Exception e) {
             e.printStackTrace();
         }
     }
 
+    // يعمل على خيط المستشعرات (sensorHandler)
     @Override
     public void onSensorChanged(SensorEvent event) {
         try {
-            if (activeSensorType == 0) return;
+            if (pipeline == null) return;
 
+            // كل القراءات تُعالج بمعدل المستشعر الكامل بدون إسقاط
             long currentTime = System.currentTimeMillis();
-            if (currentTime - lastUpdateTime < UPDATE_INTERVAL) {
-                return;
-            }
-            lastUpdateTime = currentTime;
-
-            float newAzimuth = 0f;
-            float accuracy = getAccuracyFromSensor(event);
-
-            if (activeSensorType == SENSOR_TYPE_ROTATION &&
-                    event.sensor.getType() == Sensor.TYPE_ROTATION_VECTOR) {
-                newAzimuth = getAzimuthFromRotationVector(event.values);
-            } else if (activeSensorType == SENSOR_TYPE_MAGNETIC) {
-                if (event.sensor.getType() == Sensor.TYPE_ACCELEROMETER) {
-                    gravity = lowPassFilter(event.values.clone(), gravity, false);
-                } else if (event.sensor.getType() == Sensor.TYPE_MAGNETIC_FIELD) {
-                    geomagnetic = lowPassFilter(event.values.clone(), geomagnetic, false);
-                }
+            int type = event.sensor.getType();
+            int accuracy = sensorAccuracy;
 
-                if (gravity != null && geomagnetic != null) {
-                    newAzimuth = getAzimuthFromMagneticField();
-                }
+            if (type == Sensor.TYPE_MAGNETIC_FIELD) {
+                collectCalibrationSample(event.values);
+            }
+            if (recorder != null) {
+                recordEvent(type, event.timestamp, event.values, accuracy);
             }
 
-            if (newAzimuth != 0f) {
-                processNewAzimuth(newAzimuth, accuracy, currentTime);
+            float heading = pipeline.onSensorEvent(type, event.timestamp, event.values, accuracy);
+            signalDeviation = pipeline.getSignalDeviation();
+            if (!Float.isNaN(heading)) {
+                updateHeadingRate(event.timestamp);
+                publishHeading(heading);
             }
 
             // فحص جودة الإشارة كل 3 ثوان
@@ -395,139 +383,35 @@ public class QiblaActivity extends AppCompatActivity implements SensorEventListe
         }
     }
 
-    private float getAccuracyFromSensor(SensorEvent event) {
-        // تحويل دقة المستشعر إلى وزن
-        switch (sensorAccuracy) {
-            case SensorManager.SENSOR_STATUS_ACCURACY_HIGH:
-                return 1.0f;
-            case SensorManager.SENSOR_STATUS_ACCURACY_MEDIUM:
-                return 0.7f;
-            case SensorManager.SENSOR_STATUS_ACCURACY_LOW:
-                return 0.4f;
-            default:
-                return 0.2f;
+    // متوسط متحرك لمعدل الاتجاهات الناتجة (للإحصائيات فقط)
+    private void updateHeadingRate(long eventNanos) {
+        if (lastHeadingNanos != 0 && eventNanos > lastHeadingNanos) {
+            float rate = 1e9f / (eventNanos - lastHeadingNanos);
+            headingRate = headingRate == 0f ? rate : headingRate + 0.05f * (rate - headingRate);
         }
+        lastHeadingNanos = eventNanos;
     }
 
-    private float getAzimuthFromRotationVector(float[] rotationVector) {
-        try {
-            float[] rotationMatrix = new float[9];
-            SensorManager.getRotationMatrixFromVector(rotationMatrix, rotationVector);
-
-            float[] orientationValues = new float[3];
-            SensorManager.getOrientation(rotationMatrix, orientationValues);
-
-            float azimuth = (float) Math.toDegrees(orientationValues[0]);
-            return (azimuth + 360) % 360;
-        } catch (Exception e) {
-            return azimuth;
+    // نشر الاتجاه للواجهة بدون أقفال: رسالة واحدة فقط في الانتظار مهما كان معدل المستشعر
+    private void publishHeading(float heading) {
+        if (pendingHeading.getAndSet(Float.floatToRawIntBits(heading)) == NO_HEADING) {
+            mainHandler.post(publishHeading);
         }
     }
 
-    private float getAzimuthFromMagneticField() {
-        try {
-            float[] rotationMatrix = new float[9];
-            boolean success = SensorManager.getRotationMatrix(rotationMatrix, null, gravity, geomagnetic);
-
-            if (success) {
-                float[] orientationValues = new float[3];
-                SensorManager.getOrientation(rotationMatrix, orientationValues);
-                float azimuth = (float) Math.toDegrees(orientationValues[0]);
-
-                // تطبيق تصحيح الانحراف المغناطيسي
-                azimuth = (azimuth + magneticDeclination + 360) % 360;
-
-                return azimuth;
-            }
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
-        return azimuth;
-    }
-
-    private void processNewAzimuth(float newAzimuth, float accuracy, long timestamp) {
-        // تطبيق تصحيح المعايرة
-        newAzimuth = (newAzimuth + calibrationOffset + 360) % 360;
-
-        // إضافة القراءة الجديدة
-        readings.add(new CompassReading(newAzimuth, timestamp, accuracy));
-
-        // الاحتفاظ بأحدث القراءات
-        if (readings.size() > MAX_READINGS) {
-            readings.remove(0);
-        }
-
-        if (readings.size() < 3) return;
-
-        // حساب المتوسط المرجح للزوايا الدائرية
-        float weightedAverage = calculateWeightedCircularAverage();
-
-        // تطبيق Kalman Filter
-        float filteredAzimuth = kalmanFilter.update(weightedAverage);
-
-        // تحديث فقط إذا كان التغيير كبير أو مضى وقت كافي
-        float change = calculateAngleDifference(filteredAzimuth, azimuth);
-        long timeSinceLastAnimation = timestamp - lastAnimationTime;
-
-        if (change >= MIN_CHANGE || timeSinceLastAnimation > ANIMATION_COOLDOWN) {
-            azimuth = filteredAzimuth;
-            updateCompass(timestamp);
-        } else {
-            // تحديث النصوص بدون أنيميشن
-            updateDisplayTexts();
-        }
-
-        // معالجة المعايرة إذا كانت نشطة
-        if (isCalibrating) {
-            processCalibration(filteredAzimuth);
-        }
-    }
+    // يعمل على الخيط الرئيسي: يقرأ أحدث اتجاه ويحدث البوصلة
+    private void applyPendingHeading() {
+        int bits = pendingHeading.getAndSet(NO_HEADING);
+        if (bits == NO_HEADING) return;
 
-    // حساب المتوسط المرجح للزوايا الدائرية
-    private float calculateWeightedCircularAverage() {
-        if (readings.isEmpty()) return azimuth;
-
-        double sumSin = 0, sumCos = 0, totalWeight = 0;
-        long currentTime = System.currentTimeMillis();
-
-        for (CompassReading reading : readings) {
-            // وزن أكبر للقراءات الأحدث والأدق
-            float ageWeight = Math.max(0.1f, 1.0f - (currentTime - reading.timestamp) / 5000f);
-            float weight = ageWeight * reading.accuracy;
-
-            sumSin += Math.sin(Math.toRadians(reading.azimuth)) * weight;
-            sumCos += Math.cos(Math.toRadians(reading.azimuth)) * weight;
-            totalWeight += weight;
-        }
-
-        if (totalWeight > 0) {
-            double avgAngle = Math.toDegrees(Math.atan2(sumSin / totalWeight,
-                    sumCos / totalWeight));
-            return (float)((avgAngle + 360) % 360);
-        }
-
-        return azimuth;
-    }
-
-    private float calculateAngleDifference(float angle1, float angle2) {
-        float diff = Math.abs(angle1 - angle2);
-        return Math.min(diff, 360 - diff);
-    }
-
-    private float[] lowPassFilter(float[] input, float[] output, boolean isStatic) {
-        if (output == null) return input;
-
-        float alpha = isStatic ? 0.1f : 0.15f;
-        for (int i = 0; i < input.length; i++) {
-            output[i] = output[i] + alpha * (input[i] - output[i]);
-        }
-        return output;
+        // كل قراءة تذهب مباشرة للبوصلة؛ الزنبرك في CompassView يتكفل بالنعومة
+        azimuth = Float.intBitsToFloat(bits);
+        hasHeading = true;
+        updateCompass();
     }
 
-    private void updateCompass(long currentTime) {
+    private void updateCompass() {
         try {
-            lastAnimationTime = currentTime;
-
             // حساب الفرق بين الاتجاه الحالي واتجاه القبلة
             qiblaAngleDifference = (float) (qiblaDirection - azimuth);
             if (qiblaAngleDifference > 180) {
@@ -540,37 +424,11 @@ public class QiblaActivity extends AppCompatActivity implements SensorEventListe
             boolean wasPointingToQibla = isPointingToQibla;
             isPointingToQibla = Math.abs(qiblaAngleDifference) <= QIBLA_ACCURACY_RANGE;
 
-            // تحريك البوصلة بسلاسة
-            RotateAnimation compassAnimation = new RotateAnimation(
-                    currentAzimuth, -azimuth,
-                    Animation.RELATIVE_TO_SELF, 0.5f,
-                    Animation.RELATIVE_TO_SELF, 0.5f);
-
-            compassAnimation.setDuration(400);
-            compassAnimation.setInterpolator(new AccelerateDecelerateInterpolator());
-            compassAnimation.setFillAfter(true);
-
-            if (compassImage != null) {
-                compassImage.startAnimation(compassAnimation);
-            }
-
-            // تحريك سهم القبلة
-            float qiblaRotation = (float) qiblaDirection - azimuth;
-            RotateAnimation qiblaAnimation = new RotateAnimation(
-                    (float)(qiblaDirection - currentAzimuth), qiblaRotation,
-                    Animation.RELATIVE_TO_SELF, 0.5f,
-                    Animation.RELATIVE_TO_SELF, 0.5f);
-
-            qiblaAnimation.setDuration(400);
-            qiblaAnimation.setInterpolator(new AccelerateDecelerateInterpolator());
-            qiblaAnimation.setFillAfter(true);
-
-            if (qiblaArrow != null) {
-                qiblaArrow.startAnimation(qiblaAnimation);
+            // تحريك القرص والسهم نحو الاتجاه الجديد
+            if (compassView != null) {
+                compassView.setHeading(azimuth);
             }
 
-            currentAzimuth = -azimuth;
-
             // تحديث النصوص
             updateDisplayTexts();
 
@@ -586,12 +444,23 @@ public class QiblaActivity extends AppCompatActivity implements SensorEventListe
 
     private void updateDisplayTexts() {
         try {
+            // تخطي بناء النصوص إذا لم يتغير ما يظهر على الشاشة
+            int azimuthTenths = Math.round(azimuth * 10);
+            String accuracyIndicator = getAccuracyIndicator();
+            if (azimuthTenths == displayedAzimuthTenths
+                    && isPointingToQibla == displayedPointingToQibla
+                    && accuracyIndicator.equals(displayedAccuracy)) {
+                return;
+            }
+            displayedAzimuthTenths = azimuthTenths;
+            displayedPointingToQibla = isPointingToQibla;
+            displayedAccuracy = accuracyIndicator;
+
             String currentDirection = getDirectionFromDegrees(azimuth);
             String qiblaDirectionText = getDirectionFromDegrees(qiblaDirection);
 
             if (tvDirection != null) {
                 String text = "";
-                String accuracyIndicator = getAccuracyIndicator();
 
                 if (isPointingToQibla) {
                     text = "🕋 ✅ أنت متجه نحو القبلة المقدسة!\n\n" +
@@ -626,9 +495,9 @@ public class QiblaActivity extends AppCompatActivity implements SensorEventListe
     }
 
     private String getAccuracyIndicator() {
-        if (signalVariance < 5.0f) {
+        if (signalDeviation < 5.0f) {
             return "🟢 دقة عالية";
-        } else if (signalVariance < 15.0f) {
+        } else if (signalDeviation < 15.0f) {
             return "🟡 دقة متوسطة";
         } else {
             return "🔴 دقة منخفضة";
@@ -659,32 +528,50 @@ public class QiblaActivity extends AppCompatActivity implements SensorEventListe
 
     // نظام المعايرة
     private void startCalibration() {
+        // مستشعر الدوران يعاير المغناطيس داخلياً ولا نستقبل قراءاته الخام
+        if (activeSensorType != SENSOR_TYPE_FUSION && activeSensorType != SENSOR_TYPE_MAGNETIC) {
+            Toast.makeText(this, "مستشعر الدوران يعاير نفسه تلقائياً", Toast.LENGTH_SHORT).show();
+            return;
+        }
+
         AlertDialog.Builder builder = new AlertDialog.Builder(this);
         builder.setTitle("معايرة البوصلة")
                 .setMessage("حرك الهاتف في شكل 8 لمدة 15 ثانية\nسيساعد هذا في تحسين الدقة")
                 .setPositiveButton("ابدأ المعايرة", (dialog, which) -> {
-                    isCalibrating = true;
-                    calibrationStartTime = System.currentTimeMillis();
-                    calibrationReadings.clear();
+                    if (sensorHandler == null) return;
+
+                    // حالة المعايرة مملوكة لخيط المستشعرات
+                    sensorHandler.post(() -> {
+                        isCalibrating = true;
+                        calibrationStartTime = System.currentTimeMillis();
+                        calibrationCount = 0;
+                        calibrationProgress = 0;
+                    });
                     Toast.makeText(this, "🔄 المعايرة بدأت... حرك الهاتف في شكل 8", Toast.LENGTH_SHORT).show();
                 })
                 .setNegativeButton("إلغاء", null)
                 .show();
     }
 
-    private void processCalibration(float azimuth) {
+    // يعمل على خيط المستشعرات: حفظ قراءة المغناطيس الخام (قبل التصحيح)
+    private void collectCalibrationSample(float[] values) {
         if (!isCalibrating) return;
 
-        calibrationReadings.add(azimuth);
+        if (calibrationCount < MAX_CALIBRATION_SAMPLES) {
+            System.arraycopy(values, 0, calibrationSamples, calibrationCount * 3, 3);
+            calibrationCount++;
+        }
 
         long elapsed = System.currentTimeMillis() - calibrationStartTime;
         if (elapsed > 15000) { // 15 ثانية
             finishCalibration();
         } else {
-            // عرض التقدم
+            // عرض التقدم كل 20%
             int progress = (int) (elapsed / 150); // نسبة مئوية
-            if (progress % 20 == 0) { // كل 3 ثوان
-                Toast.makeText(this, "🔄 معايرة... " + (progress / 10) + "%", Toast.LENGTH_SHORT).show();
+            if (progress >= calibrationProgress + 20) {
+                calibrationProgress = progress - progress % 20;
+                int shown = calibrationProgress;
+                mainHandler.post(() -> Toast.makeText(this, "🔄 معايرة... " + shown + "%", Toast.LENGTH_SHORT).show());
             }
         }
     }
@@ -692,64 +579,47 @@ public class QiblaActivity extends AppCompatActivity implements SensorEventListe
     private void finishCalibration() {
         isCalibrating = false;
 
-        if (calibrationReadings.size() > 10) {
-            // حساب offset من بيانات المعايرة
-            float newOffset = calculateCalibrationOffset();
-            calibrationOffset = newOffset;
-
-            // حفظ المعايرة
-            SharedPreferences.Editor editor = getSharedPreferences("compass", MODE_PRIVATE).edit();
-            editor.putFloat("calibration_offset", calibrationOffset);
-            editor.apply();
-
-            Toast.makeText(this, "✅ تمت المعايرة بنجاح! الدقة محسنة", Toast.LENGTH_LONG).show();
-        } else {
-            Toast.makeText(this, "❌ فشلت المعايرة - لم يتم جمع بيانات كافية", Toast.LENGTH_SHORT).show();
-        }
+        final int count = calibrationCount;
+        final float[] samples = Arrays.copyOf(calibrationSamples, count * 3);
+        calibrationCount = 0;
 
-        calibrationReadings.clear();
-    }
-
-    private float calculateCalibrationOffset() {
-        if (calibrationReadings.isEmpty()) return 0f;
-
-        // حساب المتوسط الدائري للمعايرة
-        double sumSin = 0, sumCos = 0;
-        for (float reading : calibrationReadings) {
-            sumSin += Math.sin(Math.toRadians(reading));
-            sumCos += Math.cos(Math.toRadians(reading));
-        }
+        calibrationExecutor.execute(() -> {
+            MagnetometerCalibration calibration = MagnetometerCalibration.fit(samples, count);
+            if (calibration == null) {
+                mainHandler.post(() -> Toast.makeText(this, "❌ فشلت المعايرة - حرك الهاتف في كل الاتجاهات", Toast.LENGTH_SHORT).show());
+                return;
+            }
 
-        double avgAngle = Math.toDegrees(Math.atan2(sumSin / calibrationReadings.size(),
-                sumCos / calibrationReadings.size()));
+            magnetometerCalibration = calibration;
+            saveCalibrationData(calibration);
+
+            // شدة المجال تغيرت بعد التصحيح؛ المرشح والنافذة يبدآن من جديد
+            Handler handler = sensorHandler;
+            if (handler != null) {
+                handler.post(() -> {
+                    pipeline.setCalibration(calibration);
+                    pipeline.reset();
+                    if (recorder != null) {
+                        recordConfig();
+                    }
+                });
+            }
 
-        // حساب الانحراف المطلوب للتصحيح
-        float targetDirection = 0f; // الشمال المغناطيسي
-        float offset = (float) (targetDirection - avgAngle);
-        return (offset + 360) % 360;
+            mainHandler.post(() -> Toast.makeText(this, "✅ تمت المعايرة بنجاح! الدقة محسنة", Toast.LENGTH_LONG).show());
+        });
     }
 
     // مراقبة جودة الإشارة
     private void checkSignalQuality() {
-        if (readings.size() < 5) return;
-
-        // حساب التباين في القراءات
-        float sum = 0, sumSquares = 0;
-        for (CompassReading reading : readings) {
-            sum += reading.azimuth;
-            sumSquares += reading.azimuth * reading.azimuth;
-        }
+        if (pipeline.getReadingCount() < 5) return;
 
-        float mean = sum / readings.size();
-        signalVariance = (sumSquares / readings.size()) - (mean * mean);
-
-        // تحذيرات جودة الإشارة
+        // تحذيرات جودة الإشارة (الانحراف المعياري الدائري محدث مع كل قراءة)
         if (sensorAccuracy == SensorManager.SENSOR_STATUS_UNRELIABLE) {
             showQualityWarning("⚠️ دقة منخفضة - ابتعد عن المعادن والمغناطيس");
-        } else if (signalVariance > 20.0f) {
-            showQualityWarning("⚠️ إشارة غير مستقرة - امسك الهاتف بثبات");
-        } else if (signalVariance > 35.0f) {
+        } else if (signalDeviation > 35.0f) {
             showQualityWarning("🔴 تداخل مغناطيسي قوي - غير موقعك");
+        } else if (signalDeviation > 20.0f) {
+            showQualityWarning("⚠️ إشارة غير مستقرة - امسك الهاتف بثبات");
         }
     }
 
@@ -757,55 +627,17 @@ public class QiblaActivity extends AppCompatActivity implements SensorEventListe
         // عرض التحذير مرة واحدة كل 10 ثوان
         long currentTime = System.currentTimeMillis();
         if (currentTime - lastQualityCheck > 10000) {
-            Toast.makeText(this, message, Toast.LENGTH_SHORT).show();
+            mainHandler.post(() -> Toast.makeText(this, message, Toast.LENGTH_SHORT).show());
         }
     }
 
-    // حساب التباين للقراءات (للزوايا الدائرية)
-    private float calculateVariance() {
-        if (readings.size() < 3) return 0f;
-
-        // تحويل الزوايا إلى متجهات وحساب التباين
-        double sumSin = 0, sumCos = 0;
-        for (CompassReading reading : readings) {
-            sumSin += Math.sin(Math.toRadians(reading.azimuth));
-            sumCos += Math.cos(Math.toRadians(reading.azimuth));
-        }
-
-        double meanSin = sumSin / readings.size();
-        double meanCos = sumCos / readings.size();
-        double R = Math.sqrt(meanSin * meanSin + meanCos * meanCos);
-
-        // تحويل إلى درجات التباين
-        return (float) (Math.toDegrees(Math.acos(R)));
-    }
-
+    // يعمل على خيط المستشعرات؛ الدقة تظهر للمستخدم عبر getAccuracyIndicator
     @Override
     public void onAccuracyChanged(Sensor sensor, int accuracy) {
+        // دقة الاتجاه تحددها المستشعرات المغناطيسية؛ دقة الجيروسكوب والتسارع لا تعني شيئاً هنا
+        int type = sensor.getType();
+        if (type != Sensor.TYPE_MAGNETIC_FIELD && type != Sensor.TYPE_ROTATION_VECTOR) return;
         sensorAccuracy = accuracy;
-
-        String accuracyMessage = "";
-        switch (accuracy) {
-            case SensorManager.SENSOR_STATUS_ACCURACY_HIGH:
-                accuracyMessage = "🟢 دقة عالية";
-                break;
-            case SensorManager.SENSOR_STATUS_ACCURACY_MEDIUM:
-                accuracyMessage = "🟡 دقة متوسطة";
-                break;
-            case SensorManager.SENSOR_STATUS_ACCURACY_LOW:
-                accuracyMessage = "🟠 دقة منخفضة";
-                break;
-            case SensorManager.SENSOR_STATUS_UNRELIABLE:
-                accuracyMessage = "🔴 غير موثوق - ابتعد عن المعادن";
-                break;
-        }
-
-        // عرض تحديث الدقة للمستخدم
-        if (!accuracyMessage.isEmpty()) {
-            new Handler(Looper.getMainLooper()).postDelayed(() -> {
-
-            }, 100);
-        }
     }
 
     // تحسينات إضافية لواجهة المستخدم
@@ -834,24 +666,28 @@ public class QiblaActivity extends AppCompatActivity implements SensorEventListe
             info.append(String.format("🧭 تصحيح مغناطيسي: %.1f°", magneticDeclination)).append("\n");
         }
 
-        if (calibrationOffset != 0) {
+        if (!magnetometerCalibration.isIdentity()) {
             info.append("⚙️ معايرة مطبقة").append("\n");
         }
 
-        info.append(String.format("🔄 قراءات: %d/%d", readings.size(), MAX_READINGS));
+        int readingCount = pipeline != null ? pipeline.getReadingCount() : 0;
+        info.append(String.format("🔄 قراءات: %d/%d", readingCount, CompassPipeline.MAX_READINGS));
 
         return info.toString();
     }
 
     // دوال مساعدة إضافية
     private void resetReadings() {
-        readings.clear();
-        kalmanFilter = new SimpleKalmanFilter();
+        if (sensorHandler == null) return;
+
+        sensorHandler.post(() -> pipeline.reset());
     }
 
     private void showCompassInfo() {
         String sensorInfo = "نوع المستشعر: ";
-        if (activeSensorType == SENSOR_TYPE_ROTATION) {
+        if (activeSensorType == SENSOR_TYPE_FUSION) {
+            sensorInfo += "جيروسكوب + مغناطيسي + تسارع (دمج)";
+        } else if (activeSensorType == SENSOR_TYPE_ROTATION) {
             sensorInfo += "مستشعر الدوران (دقة عالية)";
         } else if (activeSensorType == SENSOR_TYPE_MAGNETIC) {
             sensorInfo += "مستشعر مغناطيسي + مقياس التسارع";
@@ -865,7 +701,15 @@ public class QiblaActivity extends AppCompatActivity implements SensorEventListe
     // إضافة قائمة خيارات للمستخدم
     private void showOptionsMenu() {
         AlertDialog.Builder builder = new AlertDialog.Builder(this);
-        String[] options = {
+        // تسجيل المستشعرات متاح في نسخ التطوير فقط
+        boolean debuggable = (getApplicationInfo().flags & ApplicationInfo.FLAG_DEBUGGABLE) != 0;
+        String[] options = debuggable && pipeline != null ? new String[]{
+                "🔄 إعادة تعيين القراءات",
+                "⚙️ معايرة البوصلة",
+                "ℹ️ معلومات المستشعر",
+                "📊 إحصائيات الدقة",
+                isRecording ? "⏹️ إيقاف تسجيل المستشعرات" : "⏺️ تسجيل المستشعرات"
+        } : new String[]{
                 "🔄 إعادة تعيين القراءات",
                 "⚙️ معايرة البوصلة",
                 "ℹ️ معلومات المستشعر",
@@ -888,24 +732,98 @@ public class QiblaActivity extends AppCompatActivity implements SensorEventListe
                         case 3:
                             showAccuracyStats();
                             break;
+                        case 4:
+                            toggleRecording();
+                            break;
                     }
                 })
                 .show();
     }
 
+    // بدء أو إيقاف تسجيل أحداث المستشعرات في ملف داخل مجلد التطبيق
+    private void toggleRecording() {
+        if (sensorHandler == null) return;
+
+        if (isRecording) {
+            isRecording = false;
+            sensorHandler.post(this::stopRecording);
+            return;
+        }
+
+        File directory = getExternalFilesDir("compass-traces");
+        if (directory == null) {
+            directory = new File(getFilesDir(), "compass-traces");
+        }
+        final File file = new File(directory, "trace-" + System.currentTimeMillis() + SensorRecorder.FILE_EXTENSION);
+        isRecording = true;
+
+        sensorHandler.post(() -> {
+            try {
+                File parent = file.getParentFile();
+                if (parent != null && !parent.exists()) {
+                    parent.mkdirs();
+                }
+                recorder = new SensorRecorder(new FileOutputStream(file), pipeline.getMode());
+                recordConfig();
+                mainHandler.post(() -> Toast.makeText(this, "⏺️ بدأ التسجيل: " + file.getName(), Toast.LENGTH_SHORT).show());
+            } catch (IOException e) {
+                e.printStackTrace();
+                isRecording = false;
+                recorder = null;
+                mainHandler.post(() -> Toast.makeText(this, "تعذر بدء التسجيل", Toast.LENGTH_SHORT).show());
+            }
+        });
+    }
+
+    // يعمل على خيط المستشعرات
+    private void recordEvent(int type, long timestamp, float[] values, int accuracy) {
+        try {
+            recorder.write(type, timestamp, values, accuracy);
+        } catch (IOException e) {
+            e.printStackTrace();
+            isRecording = false;
+            stopRecording();
+        }
+    }
+
+    // يعمل على خيط المستشعرات: إعدادات المسار الحالية حتى تتطابق الإعادة
+    private void recordConfig() {
+        try {
+            recorder.writeConfig(SystemClock.elapsedRealtimeNanos(),
+                    pipeline.getMagneticDeclination(), pipeline.getCalibration());
+        } catch (IOException e) {
+            e.printStackTrace();
+            isRecording = false;
+            stopRecording();
+        }
+    }
+
+    // يعمل على خيط المستشعرات
+    private void stopRecording() {
+        if (recorder == null) return;
+
+        try {
+            recorder.close();
+            mainHandler.post(() -> Toast.makeText(this, "⏹️ تم حفظ التسجيل", Toast.LENGTH_SHORT).show());
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        recorder = null;
+    }
+
     private void showAccuracyStats() {
         String stats = String.format(
                 "📊 إحصائيات الدقة:\n\n" +
-                        "🎯 التباين: %.1f°\n" +
+                        "🎯 الانحراف المعياري: %.1f°\n" +
                         "📊 عدد القراءات: %d\n" +
-                        "⚡ معدل التحديث: %dms\n" +
+                        "⚡ معدل التحديث: %.0f قراءة/ث\n" +
                         "🧭 انحراف مغناطيسي: %.1f°\n" +
-                        "⚙️ تصحيح المعايرة: %.1f°",
-                signalVariance,
-                readings.size(),
-                UPDATE_INTERVAL,
+                        "⚙️ معايرة المغناطيس: %s",
+                signalDeviation,
+                pipeline != null ? pipeline.getReadingCount() : 0,
+                headingRate,
                 magneticDeclination,
-                calibrationOffset
+                magnetometerCalibration.isIdentity() ? "غير مطبقة" : "مطبقة"
         );
 
         new AlertDialog.Builder(this)
@@ -941,8 +859,14 @@ public class QiblaActivity extends AppCompatActivity implements SensorEventListe
             if (sensorManager != null) {
                 sensorManager.unregisterListener(this);
             }
-            readings.clear();
-            calibrationReadings.clear();
+            mainHandler.removeCallbacksAndMessages(null);
+            calibrationExecutor.shutdown();
+            if (sensorHandler != null) {
+                sensorHandler.post(this::stopRecording);
+            }
+            if (sensorThread != null) {
+                sensorThread.quitSafely();
+            }
         } catch (Exception e) {
             e.printStackTrace();
         }
@@ -952,7 +876,7 @@ public class QiblaActivity extends AppCompatActivity implements SensorEventListe
     protected void onStop() {
         super.onStop();
         // حفظ الحالة الحالية
-        if (readings.size() > 0) {
+        if (hasHeading) {
             SharedPreferences.Editor editor = getSharedPreferences("compass", MODE_PRIVATE).edit();
             editor.putFloat("last_azimuth", azimuth);
             editor.putLong("last_update", System.currentTimeMillis());
@@ -971,7 +895,9 @@ public class QiblaActivity extends AppCompatActivity implements SensorEventListe
         // إذا كان آخر تحديث قريب، استخدم القيمة المحفوظة
         if (System.currentTimeMillis() - lastUpdate < 30000) { // 30 ثانية
             azimuth = lastAzimuth;
-            currentAzimuth = -lastAzimuth;
+            if (compassView != null) {
+                compassView.snapToHeading(lastAzimuth);
+            }
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,155 @@
+package com.ebaa.prayermate;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteOpenHelper;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * تخزين دائم لجدول أوقات الصلاة في SQLite.
+ * المفتاح الأساسي (cell, epoch_day) يعمل كفهرس B-tree، لذلك البحث عن اليوم
+ * أو عن الأيام القادمة لنفس الموقع يتم في O(log n) بدون مسح الجدول.
+ */
+public class TimetableStore extends SQLiteOpenHelper {
+
+    private static final String DATABASE_NAME = "timetable.db";
+    private static final int DATABASE_VERSION = 3;
+
+    private static final String TABLE = "timetable";
+    private static final String[] COLUMNS = {
+            "epoch_day", "utc_offset", "fajr", "sunrise", "dhuhr", "asr", "maghrib", "isha"
+    };
+
+    private static TimetableStore instance;
+
+    // الكتابة تتم على خيط منفصل حتى لا تؤخر واجهة المستخدم
+    private final ExecutorService writer = Executors.newSingleThreadExecutor();
+
+    public static synchronized TimetableStore getInstance(Context context) {
+        if (instance == null) {
+            instance = new TimetableStore(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    private TimetableStore(Context context) {
+        super(context, DATABASE_NAME, null, DATABASE_VERSION);
+    }
+
+    @Override
+    public void onCreate(SQLiteDatabase db) {
+        db.execSQL("CREATE TABLE " + TABLE + " ("
+                + "cell TEXT NOT NULL, "
+                + "epoch_day INTEGER NOT NULL, "
+                + "utc_offset INTEGER NOT NULL, "
+                + "fajr INTEGER NOT NULL, "
+                + "sunrise INTEGER NOT NULL, "
+                + "dhuhr INTEGER NOT NULL, "
+                + "asr INTEGER NOT NULL, "
+                + "maghrib INTEGER NOT NULL, "
+                + "isha INTEGER NOT NULL, "
+                + "PRIMARY KEY (cell, epoch_day)) WITHOUT ROWID");
+    }
+
+    @Override
+    public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
+        // الجدول يُعاد حسابه بالكامل على الجهاز
+        db.execSQL("DROP TABLE IF EXISTS " + TABLE);
+        onCreate(db);
+    }
+
+    /**
+     * مفتاح خلية الموقع (تقريب 0.1 درجة ≈ 11 كم) حتى لا تتغير الأوقات داخل الخلية
+     */
+    public static String cellKey(double latitude, double longitude) {
+        return TimingCell.of(latitude, longitude).key();
+    }
+
+    /**
+     * @return أوقات اليوم أو null إذا لم يكن مخزناً
+     */
+    public DayTimings getDay(String cell, long epochDay) {
+        List<DayTimings> days = getDays(cell, epochDay, 1);
+        return days.isEmpty() ? null : days.get(0);
+    }
+
+    /**
+     * الأيام المخزنة من fromEpochDay ولمدة count يوماً مرتبة حسب التاريخ
+     */
+    public List<DayTimings> getDays(String cell, long fromEpochDay, int count) {
+        List<DayTimings> days = new ArrayList<>(count);
+        Cursor cursor = getReadableDatabase().query(TABLE, COLUMNS,
+                "cell = ? AND epoch_day >= ? AND epoch_day < ?",
+                new String[]{cell, Long.toString(fromEpochDay), Long.toString(fromEpochDay + count)},
+                null, null, "epoch_day");
+        try {
+            while (cursor.moveToNext()) {
+                short[] minutes = new short[PrayerTimesCalculator.PRAYER_COUNT];
+                for (int i = 0; i < minutes.length; i++) {
+                    minutes[i] = cursor.getShort(i + 2);
+                }
+                days.add(new DayTimings(cursor.getLong(0), cursor.getInt(1), minutes));
+            }
+        } finally {
+            cursor.close();
+        }
+        return days;
+    }
+
+    public boolean contains(String cell, long epochDay) {
+        return getDay(cell, epochDay) != null;
+    }
+
+    /**
+     * حفظ أيام الشهر المحسوبة محلياً دفعة واحدة وحذف الأيام المنتهية
+     *
+     * @param onSaved يُستدعى على خيط الكتابة بعد الحفظ (يمكن أن يكون null)
+     */
+    public void putAllAsync(String cell, List<DayTimings> days, long pruneBeforeEpochDay,
+                            Runnable onSaved) {
+        if (days == null) return;
+
+        writer.execute(() -> {
+            try {
+                putAll(cell, days, pruneBeforeEpochDay);
+                if (onSaved != null) {
+                    onSaved.run();
+                }
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+        });
+    }
+
+    private void putAll(String cell, List<DayTimings> days, long pruneBeforeEpochDay) {
+        SQLiteDatabase db = getWritableDatabase();
+        db.beginTransaction();
+        try {
+            db.delete(TABLE, "epoch_day < ?", new String[]{Long.toString(pruneBeforeEpochDay)});
+
+            ContentValues values = new ContentValues();
+            for (DayTimings day : days) {
+                values.clear();
+                values.put("cell", cell);
+                values.put("epoch_day", day.getEpochDay());
+                values.put("utc_offset", day.getUtcOffsetMinutes());
+                values.put("fajr", day.getMinutes(PrayerTimesCalculator.FAJR));
+                values.put("sunrise", day.getMinutes(PrayerTimesCalculator.SUNRISE));
+                values.put("dhuhr", day.getMinutes(PrayerTimesCalculator.DHUHR));
+                values.put("asr", day.getMinutes(PrayerTimesCalculator.ASR));
+                values.put("maghrib", day.getMinutes(PrayerTimesCalculator.MAGHRIB));
+                values.put("isha", day.getMinutes(PrayerTimesCalculator.ISHA));
+                db.insertWithOnConflict(TABLE, null, values, SQLiteDatabase.CONFLICT_REPLACE);
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+}
@@ -0,0 +1,42 @@
+// مقاييس أداء JMH للحسابات الخالصة (بدون Android) على JVM عادي:
+// ./gradlew :benchmarks:jmh  ← النتائج في build/results/jmh/results.json
+plugins {
+    java
+    alias(libs.plugins.jmh)
+}
+
+java {
+    sourceCompatibility = JavaVersion.VERSION_17
+    targetCompatibility = JavaVersion.VERSION_17
+}
+
+// ملفات الأصول نفسها التي يحملها التطبيق (الدول والمدن)
+sourceSets {
+    main {
+        resources {
+            srcDir("../app/src/main/assets")
+        }
+    }
+}
+
+dependencies {
+    implementation(project(":core"))
+}
+
+tasks.withType<JavaCompile>().configureEach {
+    options.encoding = "UTF-8"
+}
+
+jmh {
+    jmhVersion.set(libs.versions.jmh)
+    fork.set(1)
+    warmupIterations.set(3)
+    warmup.set("1s")
+    iterations.set(5)
+    timeOnIteration.set("1s")
+    benchmarkMode.set(listOf("avgt"))
+    timeUnit.set("ns")
+    // gc.alloc.rate.norm = بايت محجوزة لكل استدعاء؛ المسارات الساخنة يجب أن تبقى 0
+    profilers.set(listOf("gc"))
+    resultFormat.set("JSON")
+}
@@ -0,0 +1,89 @@
+package com.ebaa.prayermate;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+
+/**
+ * مسار البوصلة لكل حدث مستشعر: الإحصاءات الدائرية، مرشح الدمج، تصحيح المعايرة،
+ * والمسار الكامل كما يستدعيه QiblaActivity.
+ */
+@State(Scope.Thread)
+public class CompassBenchmark {
+
+    private static final int SAMPLES = 1024;
+
+    private final float[] azimuths = new float[SAMPLES];
+    private final float[][] gyro = new float[SAMPLES][3];
+    private final float[][] field = new float[SAMPLES][3];
+    private final float[] acceleration = {0.3f, 0.2f, 9.8f};
+    private final float[] corrected = new float[3];
+
+    private final CircularStatistics statistics = new CircularStatistics(CompassPipeline.MAX_READINGS, 300);
+    private final OrientationFilter filter = new OrientationFilter();
+    private final CompassPipeline pipeline = new CompassPipeline(CompassPipeline.MODE_FUSION);
+    private final MagnetometerCalibration calibration = new MagnetometerCalibration(new float[]{
+            30, -12, 55, 0.87f, -0.1f, -0.05f, -0.1f, 1.17f, 0.09f, -0.05f, 0.09f, 1.0f});
+
+    private int next;
+    private long timestamp;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        for (int i = 0; i < SAMPLES; i++) {
+            azimuths[i] = (float) ((358 + random.nextGaussian() * 3 + 360) % 360);
+            gyro[i][0] = (float) (random.nextGaussian() * 0.01);
+            gyro[i][1] = (float) (random.nextGaussian() * 0.01);
+            gyro[i][2] = (float) (0.3 + random.nextGaussian() * 0.01);
+            field[i][0] = (float) (5 + random.nextGaussian());
+            field[i][1] = (float) (22 + random.nextGaussian());
+            field[i][2] = (float) (-40 + random.nextGaussian());
+        }
+
+        filter.updateAccelerometer(acceleration[0], acceleration[1], acceleration[2]);
+        filter.updateMagnetometer(field[0][0], field[0][1], field[0][2]);
+        pipeline.setCalibration(calibration);
+        pipeline.onSensorEvent(CompassPipeline.TYPE_ACCELEROMETER, 0, acceleration, CompassPipeline.STATUS_ACCURACY_HIGH);
+        pipeline.onSensorEvent(CompassPipeline.TYPE_MAGNETIC_FIELD, 0, field[0], CompassPipeline.STATUS_ACCURACY_HIGH);
+    }
+
+    @Benchmark
+    public float circularAverage() {
+        int i = next++ & (SAMPLES - 1);
+        timestamp += 5;
+        statistics.add(azimuths[i], timestamp, 1f);
+        return statistics.getMean() + statistics.getStandardDeviation();
+    }
+
+    @Benchmark
+    public float orientationFilter() {
+        int i = next++ & (SAMPLES - 1);
+        timestamp += 5000000L;
+        filter.updateMagnetometer(field[i][0], field[i][1], field[i][2]);
+        filter.updateGyroscope(gyro[i][0], gyro[i][1], gyro[i][2], timestamp);
+        return filter.getHeading();
+    }
+
+    @Benchmark
+    public float[] magnetometerCalibration() {
+        int i = next++ & (SAMPLES - 1);
+        calibration.apply(field[i], corrected);
+        return corrected;
+    }
+
+    @Benchmark
+    public float pipelineEvent() {
+        int i = next++ & (SAMPLES - 1);
+        timestamp += 5000000L;
+        if ((i & 1) == 0) {
+            pipeline.onSensorEvent(CompassPipeline.TYPE_MAGNETIC_FIELD, timestamp, field[i],
+                    CompassPipeline.STATUS_ACCURACY_HIGH);
+        }
+        return pipeline.onSensorEvent(CompassPipeline.TYPE_GYROSCOPE, timestamp, gyro[i],
+                CompassPipeline.STATUS_ACCURACY_HIGH);
+    }
+}
@@ -0,0 +1,42 @@
+package com.ebaa.prayermate;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+
+/**
+ * اتجاه القبلة والمسافة إليها لمواقع عشوائية حول العالم.
+ */
+@State(Scope.Thread)
+public class GeoMathBenchmark {
+
+    private static final int POINTS = 1024;
+
+    private final double[] latitudes = new double[POINTS];
+    private final double[] longitudes = new double[POINTS];
+    private int next;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        for (int i = 0; i < POINTS; i++) {
+            latitudes[i] = random.nextDouble() * 140 - 70;
+            longitudes[i] = random.nextDouble() * 360 - 180;
+        }
+    }
+
+    @Benchmark
+    public double qiblaBearing() {
+        int i = next++ & (POINTS - 1);
+        return GeoMath.qiblaBearing(latitudes[i], longitudes[i]);
+    }
+
+    @Benchmark
+    public double qiblaDistance() {
+        int i = next++ & (POINTS - 1);
+        return GeoMath.qiblaDistanceKm(latitudes[i], longitudes[i]);
+    }
+}
@@ -0,0 +1,57 @@
+package com.ebaa.prayermate;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * حساب الأوقات محلياً، وتحويل أوقات Aladhan النصية، وتحديد الصلاة القادمة.
+ */
+@State(Scope.Thread)
+public class PrayerTimesBenchmark {
+
+    private final PrayerTimesCalculator calculator = PrayerTimesCalculator.egyptian();
+    private final int[] minutes = new int[PrayerTimesCalculator.PRAYER_COUNT];
+    private final char[] formatted = new char[5];
+
+    private DayTimings timings;
+    private int minuteOfDay;
+    private int day;
+
+    @Setup
+    public void setup() {
+        timings = calculator.computeDay(30.0444, 31.2357, DayTimings.epochDay(2025, 3, 15), 120);
+    }
+
+    @Benchmark
+    public int[] computeDay() {
+        day = day == 28 ? 1 : day + 1;
+        calculator.compute(30.0444, 31.2357, 2025, 3, day, 2.0, minutes);
+        return minutes;
+    }
+
+    @Benchmark
+    public int parseAladhanTime() {
+        return DayTimings.parseMinutes("04:34 (EET)");
+    }
+
+    @Benchmark
+    public long parseAladhanDate() {
+        return DayTimings.parseEpochDay("15-03-2025");
+    }
+
+    @Benchmark
+    public char[] formatTime() {
+        minuteOfDay = (minuteOfDay + 7) % (24 * 60);
+        DayTimings.formatMinutes(minuteOfDay, formatted);
+        return formatted;
+    }
+
+    @Benchmark
+    public void nextPrayer(Blackhole blackhole) {
+        minuteOfDay = (minuteOfDay + 7) % (24 * 60);
+        blackhole.consume(timings.nextAfter(minuteOfDay, true));
+    }
+}
@@ -0,0 +1,75 @@
+package com.ebaa.prayermate;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Random;
+
+/**
+ * تحديد الدولة وأقرب مدينة بدون إنترنت من نفس ملفات الأصول التي يستخدمها التطبيق.
+ */
+@State(Scope.Thread)
+public class ReverseGeocodingBenchmark {
+
+    private static final int POINTS = 1024;
+
+    private CountryLocator countryLocator;
+    private CityGazetteer cityGazetteer;
+    private File indexFile;
+
+    private final double[] latitudes = new double[POINTS];
+    private final double[] longitudes = new double[POINTS];
+    private int next;
+
+    @Setup
+    public void setup() throws IOException {
+        try (InputStream input = open(CountryLocator.ASSET_NAME)) {
+            countryLocator = CountryLocator.load(input);
+        }
+
+        indexFile = File.createTempFile("cities", ".kdt");
+        try (InputStream input = open(CityGazetteer.ASSET_NAME);
+             OutputStream output = new FileOutputStream(indexFile)) {
+            CityGazetteer.build(input, output);
+        }
+        cityGazetteer = CityGazetteer.open(indexFile);
+
+        // مواقع في المنطقة التي تغطيها المضلعات (الشرق الأوسط وشمال أفريقيا)
+        Random random = new Random(42);
+        for (int i = 0; i < POINTS; i++) {
+            latitudes[i] = random.nextDouble() * 30 + 10;
+            longitudes[i] = random.nextDouble() * 50 - 5;
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        indexFile.delete();
+    }
+
+    private static InputStream open(String asset) throws IOException {
+        InputStream input = ReverseGeocodingBenchmark.class.getClassLoader().getResourceAsStream(asset);
+        if (input == null) throw new IOException("Missing asset " + asset);
+        return input;
+    }
+
+    @Benchmark
+    public String findCountry() {
+        int i = next++ & (POINTS - 1);
+        return countryLocator.findCountry(latitudes[i], longitudes[i]);
+    }
+
+    @Benchmark
+    public int nearestCity() {
+        int i = next++ & (POINTS - 1);
+        return cityGazetteer.nearest(latitudes[i], longitudes[i], 50);
+    }
+}
@@ -0,0 +1,28 @@
+// منطق التطبيق الخالص (بدون Android): حساب الأوقات، القبلة، البوصلة، وتحديد المكان.
+// يعتمد عليه :app و :benchmarks، واختباراته تعمل على JVM عادي.
+plugins {
+    `java-library`
+}
+
+java {
+    sourceCompatibility = JavaVersion.VERSION_1_8
+    targetCompatibility = JavaVersion.VERSION_1_8
+}
+
+tasks.withType<JavaCompile>().configureEach {
+    options.encoding = "UTF-8"
+}
+
+// اختبارات CountryLocator و CityGazetteer تقرأ ملفات الأصول نفسها التي يشحنها التطبيق
+sourceSets {
+    test {
+        resources.srcDir("../app/src/main/assets")
+    }
+}
+
+dependencies {
+    // فك استجابات Aladhan (PrayerTimesJsonAdapters) مشترك بين التطبيق واختبارات :server
+    api(libs.gson)
+
+    testImplementation(libs.junit)
+}
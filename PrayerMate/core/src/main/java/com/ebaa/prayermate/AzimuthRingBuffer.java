@@ -0,0 +1,68 @@
+package com.ebaa.prayermate;
+
+/**
+ * مخزن دائري بسعة ثابتة لقراءات البوصلة في مصفوفات أولية متوازية.
+ * الإضافة فوق السعة تستبدل أقدم قراءة بدون إنشاء أي كائنات أو إزاحة العناصر.
+ */
+public class AzimuthRingBuffer {
+
+    private final float[] azimuths;
+    private final long[] timestamps;
+    private final float[] accuracies;
+
+    // موضع أقدم قراءة وعدد القراءات الحالية
+    private int head;
+    private int size;
+
+    public AzimuthRingBuffer(int capacity) {
+        azimuths = new float[capacity];
+        timestamps = new long[capacity];
+        accuracies = new float[capacity];
+    }
+
+    public void add(float azimuth, long timestamp, float accuracy) {
+        int index;
+        if (size < azimuths.length) {
+            index = (head + size) % azimuths.length;
+            size++;
+        } else {
+            index = head;
+            head = (head + 1) % azimuths.length;
+        }
+        azimuths[index] = azimuth;
+        timestamps[index] = timestamp;
+        accuracies[index] = Math.max(0.1f, accuracy);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int capacity() {
+        return azimuths.length;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        head = 0;
+        size = 0;
+    }
+
+    /**
+     * @param i ترتيب القراءة من الأقدم (0) إلى الأحدث (size - 1)
+     */
+    public float getAzimuth(int i) {
+        return azimuths[(head + i) % azimuths.length];
+    }
+
+    public long getTimestamp(int i) {
+        return timestamps[(head + i) % timestamps.length];
+    }
+
+    public float getAccuracy(int i) {
+        return accuracies[(head + i) % accuracies.length];
+    }
+}
@@ -0,0 +1,101 @@
+package com.ebaa.prayermate;
+
+/**
+ * إحصاءات دائرية تراكمية لنافذة قراءات البوصلة بتكلفة ثابتة لكل قراءة.
+ * يحتفظ بمجاميع sin و cos الموزونة ويضمحل وزن كل قراءة أسياً مع عمرها؛
+ * عند امتلاء النافذة تُطرح مساهمة أقدم قراءة بدلاً من إعادة المرور على الكل.
+ * التباين محسوب من طول المتجه المحصل فيبقى صحيحاً حول 0° / 360°.
+ */
+public class CircularStatistics {
+
+    private final AzimuthRingBuffer window;
+    private final double decayMillis;
+
+    // المجاميع الموزونة مضمحلة حتى lastTimestamp
+    private double sumSin;
+    private double sumCos;
+    private double sumWeight;
+    private long lastTimestamp;
+
+    /**
+     * @param capacity    أقصى عدد قراءات في النافذة
+     * @param decayMillis ثابت الاضمحلال: وزن القراءة يقل بمعامل e كل decayMillis
+     */
+    public CircularStatistics(int capacity, double decayMillis) {
+        this.window = new AzimuthRingBuffer(capacity);
+        this.decayMillis = decayMillis;
+    }
+
+    public void add(float azimuth, long timestamp, float weight) {
+        if (window.isEmpty()) {
+            sumSin = 0;
+            sumCos = 0;
+            sumWeight = 0;
+        } else {
+            // اضمحلال كل المجاميع دفعة واحدة حتى اللحظة الحالية
+            double decay = Math.exp(-Math.max(0, timestamp - lastTimestamp) / decayMillis);
+            sumSin *= decay;
+            sumCos *= decay;
+            sumWeight *= decay;
+        }
+        lastTimestamp = timestamp;
+
+        // إخراج أقدم قراءة بوزنها الحالي قبل أن يستبدلها المخزن الدائري
+        if (window.size() == window.capacity()) {
+            double age = timestamp - window.getTimestamp(0);
+            double oldWeight = window.getAccuracy(0) * Math.exp(-age / decayMillis);
+            double oldRadians = Math.toRadians(window.getAzimuth(0));
+            sumSin -= Math.sin(oldRadians) * oldWeight;
+            sumCos -= Math.cos(oldRadians) * oldWeight;
+            sumWeight = Math.max(0, sumWeight - oldWeight);
+        }
+
+        window.add(azimuth, timestamp, weight);
+        double radians = Math.toRadians(azimuth);
+        double w = window.getAccuracy(window.size() - 1);
+        sumSin += Math.sin(radians) * w;
+        sumCos += Math.cos(radians) * w;
+        sumWeight += w;
+    }
+
+    public void clear() {
+        window.clear();
+        sumSin = 0;
+        sumCos = 0;
+        sumWeight = 0;
+    }
+
+    public int size() {
+        return window.size();
+    }
+
+    public int capacity() {
+        return window.capacity();
+    }
+
+    /**
+     * المتوسط الدائري الموزون بالدرجات [0, 360)
+     */
+    public float getMean() {
+        double mean = Math.toDegrees(Math.atan2(sumSin, sumCos));
+        return (float) ((mean + 360) % 360);
+    }
+
+    /**
+     * طول المتجه المحصل R بين 0 (تشتت كامل) و 1 (كل القراءات متطابقة)
+     */
+    public float getResultantLength() {
+        if (sumWeight <= 0) return 0f;
+        double r = Math.sqrt(sumSin * sumSin + sumCos * sumCos) / sumWeight;
+        return (float) Math.min(1.0, r);
+    }
+
+    /**
+     * الانحراف المعياري الدائري بالدرجات: sqrt(-2 ln R)
+     */
+    public float getStandardDeviation() {
+        float r = getResultantLength();
+        if (r <= 0f) return 180f;
+        return (float) Math.toDegrees(Math.sqrt(-2.0 * Math.log(r)));
+    }
+}
@@ -0,0 +1,237 @@
+package com.ebaa.prayermate;
+
+import java.io.BufferedReader;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * البحث عن أقرب مدينة بدون إنترنت وبدون Geocoder.
+ * المدن مخزنة في ملف ثنائي كشجرة k-d ضمنية (العقدة الوسطى لكل مدى هي الجذر)
+ * على إحداثيات الكرة ثلاثية الأبعاد، فالمسافة صحيحة قرب القطبين وخط التاريخ.
+ * الملف يُقرأ عبر mmap والبحث لا ينشئ أي كائنات.
+ *
+ * صيغة الملف: MAGIC, count, ثم count × (x, y, z, nameOffset)، ثم الأسماء (طول + UTF-8)
+ */
+public class CityGazetteer {
+
+    public static final String ASSET_NAME = "cities.csv";
+    public static final String INDEX_NAME = "cities.kdt";
+
+    private static final int MAGIC = 0x4B445431; // "KDT1"
+    private static final int HEADER_BYTES = 8;
+    private static final int RECORD_BYTES = 16;
+    private static final double EARTH_RADIUS_KM = 6371.0;
+
+    private final ByteBuffer buffer;
+    private final int count;
+    private final int namesStart;
+
+    // حالة البحث الحالي (البحث متزامن لذلك لا حاجة لكائن لكل استعلام)
+    private int best;
+    private float bestDistance;
+    private float queryX, queryY, queryZ;
+
+    // آخر اسم تم فك ترميزه حتى لا يتكرر إنشاء النص لنفس المدينة
+    private int cachedNameCity = -1;
+    private String cachedName;
+
+    private CityGazetteer(ByteBuffer buffer) throws IOException {
+        if (buffer.getInt(0) != MAGIC) {
+            throw new IOException("Invalid gazetteer index");
+        }
+        this.buffer = buffer;
+        this.count = buffer.getInt(4);
+        this.namesStart = HEADER_BYTES + count * RECORD_BYTES;
+    }
+
+    /**
+     * فتح ملف الفهرس بـ mmap (الصفحات تُحمّل من القرص عند الحاجة فقط)
+     */
+    public static CityGazetteer open(File file) throws IOException {
+        RandomAccessFile raf = new RandomAccessFile(file, "r");
+        try {
+            FileChannel channel = raf.getChannel();
+            return new CityGazetteer(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        } finally {
+            // الـ mapping يبقى صالحاً بعد إغلاق الملف
+            raf.close();
+        }
+    }
+
+    public int size() {
+        return count;
+    }
+
+    /**
+     * @return رقم أقرب مدينة أو -1 إذا كانت أبعد من maxDistanceKm
+     */
+    public synchronized int nearest(double latitude, double longitude, double maxDistanceKm) {
+        if (count == 0) return -1;
+
+        double lat = Math.toRadians(latitude);
+        double lng = Math.toRadians(longitude);
+        queryX = (float) (Math.cos(lat) * Math.cos(lng));
+        queryY = (float) (Math.cos(lat) * Math.sin(lng));
+        queryZ = (float) Math.sin(lat);
+
+        // المسافة العظمى المسموحة محولة إلى مربع طول الوتر
+        double chord = 2 * Math.sin(Math.min(Math.PI, maxDistanceKm / EARTH_RADIUS_KM) / 2);
+        best = -1;
+        bestDistance = (float) (chord * chord);
+
+        search(0, count, 0);
+        return best;
+    }
+
+    private void search(int low, int high, int axis) {
+        if (low >= high) return;
+
+        int mid = (low + high) >>> 1;
+        int offset = HEADER_BYTES + mid * RECORD_BYTES;
+        float dx = queryX - buffer.getFloat(offset);
+        float dy = queryY - buffer.getFloat(offset + 4);
+        float dz = queryZ - buffer.getFloat(offset + 8);
+        float distance = dx * dx + dy * dy + dz * dz;
+        if (distance < bestDistance) {
+            bestDistance = distance;
+            best = mid;
+        }
+
+        float diff = axis == 0 ? dx : axis == 1 ? dy : dz;
+        int nextAxis = axis == 2 ? 0 : axis + 1;
+        if (diff < 0) {
+            search(low, mid, nextAxis);
+            if (diff * diff < bestDistance) search(mid + 1, high, nextAxis);
+        } else {
+            search(mid + 1, high, nextAxis);
+            if (diff * diff < bestDistance) search(low, mid, nextAxis);
+        }
+    }
+
+    public synchronized String getName(int city) {
+        if (city != cachedNameCity) {
+            int offset = namesStart + buffer.getInt(HEADER_BYTES + city * RECORD_BYTES + 12);
+            int length = buffer.getShort(offset);
+            byte[] bytes = new byte[length];
+            for (int i = 0; i < length; i++) {
+                bytes[i] = buffer.get(offset + 2 + i);
+            }
+            cachedName = new String(bytes, StandardCharsets.UTF_8);
+            cachedNameCity = city;
+        }
+        return cachedName;
+    }
+
+    /**
+     * بناء ملف الفهرس من ملف CSV (الاسم,خط العرض,خط الطول)
+     */
+    public static void build(InputStream csv, OutputStream out) throws IOException {
+        List<String> names = new ArrayList<>();
+        List<float[]> points = new ArrayList<>();
+
+        BufferedReader reader = new BufferedReader(new InputStreamReader(csv, StandardCharsets.UTF_8));
+        try {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) continue;
+
+                int second = line.lastIndexOf(',');
+                int first = line.lastIndexOf(',', second - 1);
+                if (first <= 0) continue;
+
+                double lat = Math.toRadians(Double.parseDouble(line.substring(first + 1, second)));
+                double lng = Math.toRadians(Double.parseDouble(line.substring(second + 1)));
+                names.add(line.substring(0, first));
+                points.add(new float[]{
+                        (float) (Math.cos(lat) * Math.cos(lng)),
+                        (float) (Math.cos(lat) * Math.sin(lng)),
+                        (float) Math.sin(lat)
+                });
+            }
+        } finally {
+            reader.close();
+        }
+
+        int n = points.size();
+        int[] order = new int[n];
+        for (int i = 0; i < n; i++) {
+            order[i] = i;
+        }
+        buildTree(order, points, 0, n, 0);
+
+        // الأسماء بترتيب الشجرة حتى تكون قراءة اسم النتيجة متجاورة مع سجلها
+        byte[][] encoded = new byte[n][];
+        int[] nameOffsets = new int[n];
+        int namesLength = 0;
+        for (int i = 0; i < n; i++) {
+            encoded[i] = names.get(order[i]).getBytes(StandardCharsets.UTF_8);
+            nameOffsets[i] = namesLength;
+            namesLength += 2 + encoded[i].length;
+        }
+
+        DataOutputStream data = new DataOutputStream(out);
+        data.writeInt(MAGIC);
+        data.writeInt(n);
+        for (int i = 0; i < n; i++) {
+            float[] p = points.get(order[i]);
+            data.writeFloat(p[0]);
+            data.writeFloat(p[1]);
+            data.writeFloat(p[2]);
+            data.writeInt(nameOffsets[i]);
+        }
+        for (byte[] name : encoded) {
+            data.writeShort(name.length);
+            data.write(name);
+        }
+        data.flush();
+    }
+
+    // ترتيب المدى بحيث يكون الوسيط على المحور الحالي في المنتصف ثم التكرار على النصفين
+    private static void buildTree(int[] order, List<float[]> points, int low, int high, int axis) {
+        if (high - low <= 1) return;
+
+        int mid = (low + high) >>> 1;
+        select(order, points, low, high - 1, mid, axis);
+        int nextAxis = axis == 2 ? 0 : axis + 1;
+        buildTree(order, points, low, mid, nextAxis);
+        buildTree(order, points, mid + 1, high, nextAxis);
+    }
+
+    // quickselect: يضع العنصر رقم k في مكانه الصحيح والأصغر منه قبله
+    private static void select(int[] order, List<float[]> points, int left, int right, int k, int axis) {
+        while (left < right) {
+            float pivot = points.get(order[(left + right) >>> 1])[axis];
+            int i = left;
+            int j = right;
+            while (i <= j) {
+                while (points.get(order[i])[axis] < pivot) i++;
+                while (points.get(order[j])[axis] > pivot) j--;
+                if (i <= j) {
+                    int tmp = order[i];
+                    order[i] = order[j];
+                    order[j] = tmp;
+                    i++;
+                    j--;
+                }
+            }
+            if (k <= j) {
+                right = j;
+            } else if (k >= i) {
+                left = i;
+            } else {
+                return;
+            }
+        }
+    }
+}
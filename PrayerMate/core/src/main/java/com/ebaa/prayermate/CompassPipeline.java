@@ -0,0 +1,241 @@
+package com.ebaa.prayermate;
+
+/**
+ * مسار ترشيح البوصلة كاملاً من قراءة المستشعر الخام إلى الاتجاه النهائي، بدون أي اعتماد على Android.
+ * QiblaActivity يمرر له أحداث المستشعرات، ومشغل الإعادة على JVM يمرر له تسجيلات SensorRecorder،
+ * فتكون النتيجة واحدة في الحالتين (الزمن مأخوذ من طابع الحدث فقط).
+ * كل الاستدعاءات من خيط واحد (خيط المستشعرات)؛ المسار لا ينشئ أي كائنات لكل حدث.
+ */
+public class CompassPipeline {
+
+    // نفس قيم android.hardware.Sensor و SensorManager حتى تمر الأحداث كما هي
+    public static final int TYPE_ACCELEROMETER = 1;
+    public static final int TYPE_MAGNETIC_FIELD = 2;
+    public static final int TYPE_GYROSCOPE = 4;
+    public static final int TYPE_ROTATION_VECTOR = 11;
+
+    public static final int STATUS_UNRELIABLE = 0;
+    public static final int STATUS_ACCURACY_LOW = 1;
+    public static final int STATUS_ACCURACY_MEDIUM = 2;
+    public static final int STATUS_ACCURACY_HIGH = 3;
+
+    // مصدر الاتجاه
+    public static final int MODE_ROTATION = 1;
+    public static final int MODE_MAGNETIC = 2;
+    public static final int MODE_FUSION = 3;
+
+    // نافذة القراءات: متوسط وتشتت دائريان بتكلفة ثابتة لكل قراءة
+    // (كل قراءات المستشعر تدخل النافذة، لذلك هي قصيرة زمنياً: نصف ثانية تقريباً)
+    public static final int MAX_READINGS = 32;
+    private static final double READING_DECAY_MS = 300;
+
+    private final int mode;
+    private final CircularStatistics readings = new CircularStatistics(MAX_READINGS, READING_DECAY_MS);
+
+    // دمج الجيروسكوب مع التسارع والمغناطيس
+    private final OrientationFilter orientationFilter = new OrientationFilter();
+
+    // مصفوفات معادة الاستخدام لمسار التسارع + المغناطيس
+    private final float[] gravity = new float[3];
+    private final float[] geomagnetic = new float[3];
+    private boolean hasGravity, hasGeomagnetic;
+    private final float[] calibratedField = new float[3];
+
+    private MagnetometerCalibration calibration = MagnetometerCalibration.IDENTITY;
+    private volatile float magneticDeclination = 0f;
+
+    private float heading = Float.NaN;
+    private float signalDeviation = 0f;
+
+    public CompassPipeline(int mode) {
+        this.mode = mode;
+    }
+
+    public int getMode() {
+        return mode;
+    }
+
+    public void setCalibration(MagnetometerCalibration calibration) {
+        this.calibration = calibration;
+    }
+
+    public MagnetometerCalibration getCalibration() {
+        return calibration;
+    }
+
+    /**
+     * يمكن استدعاؤها من أي خيط؛ تُطبق من الحدث التالي
+     */
+    public void setMagneticDeclination(float declination) {
+        magneticDeclination = declination;
+    }
+
+    public float getMagneticDeclination() {
+        return magneticDeclination;
+    }
+
+    /**
+     * معالجة حدث مستشعر واحد.
+     *
+     * @param accuracy حالة دقة المستشعرات المغناطيسية (STATUS_*)
+     * @return الاتجاه الجديد بالدرجات [0, 360) أو NaN إذا لم ينتج الحدث اتجاهاً
+     */
+    public float onSensorEvent(int type, long timestampNanos, float[] values, int accuracy) {
+        float weight = accuracyWeight(accuracy);
+        float azimuth = Float.NaN;
+
+        if (mode == MODE_FUSION) {
+            if (type == TYPE_ACCELEROMETER) {
+                orientationFilter.updateAccelerometer(values[0], values[1], values[2]);
+            } else if (type == TYPE_MAGNETIC_FIELD) {
+                calibration.apply(values, calibratedField);
+                orientationFilter.setMagneticWeight(weight);
+                orientationFilter.updateMagnetometer(calibratedField[0], calibratedField[1], calibratedField[2]);
+            } else if (type == TYPE_GYROSCOPE) {
+                // الجيروسكوب يقود التحديث: اتجاه جديد مع كل قراءة
+                orientationFilter.updateGyroscope(values[0], values[1], values[2], timestampNanos);
+                if (orientationFilter.isInitialized()) {
+                    azimuth = orientationFilter.getHeading();
+                }
+            }
+        } else if (mode == MODE_ROTATION) {
+            if (type == TYPE_ROTATION_VECTOR) {
+                azimuth = azimuthFromRotationVector(values);
+            }
+        } else if (mode == MODE_MAGNETIC) {
+            if (type == TYPE_ACCELEROMETER) {
+                lowPassFilter(values, gravity, hasGravity);
+                hasGravity = true;
+            } else if (type == TYPE_MAGNETIC_FIELD) {
+                calibration.apply(values, calibratedField);
+                lowPassFilter(calibratedField, geomagnetic, hasGeomagnetic);
+                hasGeomagnetic = true;
+            }
+            if (hasGravity && hasGeomagnetic) {
+                azimuth = azimuthFromGravityAndField(gravity, geomagnetic);
+            }
+        }
+
+        if (Float.isNaN(azimuth)) return Float.NaN;
+
+        // تصحيح الانحراف المغناطيسي: كل المصادر تقيس من الشمال المغناطيسي
+        azimuth = (azimuth + magneticDeclination + 360) % 360;
+        long timestamp = timestampNanos / 1000000L;
+
+        if (mode == MODE_FUSION) {
+            // الاتجاه المدموج ناعم بذاته ويُعرض مباشرة؛ النافذة تقيس تشتت
+            // المغناطيس حوله فقط، فلا يرتفع التشتت عند دوران المستخدم
+            readings.add(orientationFilter.getMagneticResidual(), timestamp, weight);
+            signalDeviation = readings.getStandardDeviation();
+            heading = azimuth;
+        } else {
+            // إضافة القراءة الجديدة وتحديث المتوسط والتشتت تراكمياً
+            readings.add(azimuth, timestamp, weight);
+            signalDeviation = readings.getStandardDeviation();
+
+            if (readings.size() < 3) return Float.NaN;
+
+            // المتوسط المرجح للزوايا الدائرية (الأحدث والأدق وزنه أكبر)
+            heading = readings.getMean();
+        }
+        return heading;
+    }
+
+    /**
+     * آخر اتجاه ناتج أو NaN قبل أول اتجاه
+     */
+    public float getHeading() {
+        return heading;
+    }
+
+    /**
+     * الانحراف المعياري الدائري للنافذة بالدرجات
+     */
+    public float getSignalDeviation() {
+        return signalDeviation;
+    }
+
+    public int getReadingCount() {
+        return readings.size();
+    }
+
+    public void reset() {
+        readings.clear();
+        orientationFilter.reset();
+        hasGravity = false;
+        hasGeomagnetic = false;
+        heading = Float.NaN;
+        signalDeviation = 0f;
+    }
+
+    // تحويل دقة المستشعر إلى وزن
+    public static float accuracyWeight(int accuracy) {
+        switch (accuracy) {
+            case STATUS_ACCURACY_HIGH:
+                return 1.0f;
+            case STATUS_ACCURACY_MEDIUM:
+                return 0.7f;
+            case STATUS_ACCURACY_LOW:
+                return 0.4f;
+            default:
+                return 0.2f;
+        }
+    }
+
+    // ترشيح القيم داخل output مباشرة؛ أول قراءة تُنسخ كما هي
+    private static void lowPassFilter(float[] input, float[] output, boolean initialized) {
+        if (!initialized) {
+            System.arraycopy(input, 0, output, 0, output.length);
+            return;
+        }
+
+        float alpha = 0.15f;
+        for (int i = 0; i < output.length; i++) {
+            output[i] = output[i] + alpha * (input[i] - output[i]);
+        }
+    }
+
+    // نفس ناتج SensorManager.getRotationMatrixFromVector ثم getOrientation (السمت فقط)
+    static float azimuthFromRotationVector(float[] rotationVector) {
+        float q1 = rotationVector[0];
+        float q2 = rotationVector[1];
+        float q3 = rotationVector[2];
+        float q0;
+        if (rotationVector.length >= 4) {
+            q0 = rotationVector[3];
+        } else {
+            q0 = 1 - q1 * q1 - q2 * q2 - q3 * q3;
+            q0 = q0 > 0 ? (float) Math.sqrt(q0) : 0;
+        }
+
+        float r1 = 2 * q1 * q2 - 2 * q3 * q0;
+        float r4 = 1 - 2 * q1 * q1 - 2 * q3 * q3;
+        float azimuth = (float) Math.toDegrees(Math.atan2(r1, r4));
+        return (azimuth + 360) % 360;
+    }
+
+    // نفس ناتج SensorManager.getRotationMatrix ثم getOrientation (السمت فقط)؛ NaN عند السقوط الحر أو قرب القطب المغناطيسي
+    static float azimuthFromGravityAndField(float[] gravity, float[] geomagnetic) {
+        float ax = gravity[0], ay = gravity[1], az = gravity[2];
+        float ex = geomagnetic[0], ey = geomagnetic[1], ez = geomagnetic[2];
+
+        // شرق = E × A، شمال = A × شرق
+        float hx = ey * az - ez * ay;
+        float hy = ez * ax - ex * az;
+        float hz = ex * ay - ey * ax;
+        float normH = (float) Math.sqrt(hx * hx + hy * hy + hz * hz);
+        if (normH < 0.1f) return Float.NaN;
+
+        float invH = 1.0f / normH;
+        hx *= invH;
+        hy *= invH;
+        hz *= invH;
+        float invA = 1.0f / (float) Math.sqrt(ax * ax + ay * ay + az * az);
+        ax *= invA;
+        az *= invA;
+        float my = az * hx - ax * hz;
+
+        float azimuth = (float) Math.toDegrees(Math.atan2(hy, my));
+        return (azimuth + 360) % 360;
+    }
+}
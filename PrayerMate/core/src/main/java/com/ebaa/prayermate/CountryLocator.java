@@ -0,0 +1,201 @@
+package com.ebaa.prayermate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * تحديد الدولة من الإحداثيات باستخدام مضلعات مبسطة (assets/countries.txt)
+ * وفهرس شبكي بخلايا 5° × 5°، فكل استعلام يفحص عدداً قليلاً من المضلعات
+ * المرشحة فقط. البيانات مخزنة في مصفوفات أولية والبحث لا ينشئ أي كائنات.
+ */
+public class CountryLocator {
+
+    public static final String ASSET_NAME = "countries.txt";
+
+    private static final double CELL_DEGREES = 5.0;
+    private static final int ROWS = (int) (180 / CELL_DEGREES);
+    private static final int COLUMNS = (int) (360 / CELL_DEGREES);
+
+    private final String[] names;
+
+    // لكل مضلع: رقم الدولة، بداية ونهاية نقاطه، والمستطيل المحيط به
+    private final int[] ringCountry;
+    private final int[] ringStart;
+    private final float[] ringMinLat, ringMaxLat, ringMinLng, ringMaxLng;
+
+    // نقاط كل المضلعات متتالية
+    private final float[] lats;
+    private final float[] lngs;
+
+    // الفهرس الشبكي بصيغة CSR: مضلعات الخلية c هي cellRings[cellStart[c] .. cellStart[c + 1])
+    private final int[] cellStart;
+    private final int[] cellRings;
+
+    private CountryLocator(List<String> names, List<Integer> ringCountry, List<float[]> ringPoints) {
+        this.names = names.toArray(new String[0]);
+
+        int ringCount = ringPoints.size();
+        this.ringCountry = new int[ringCount];
+        this.ringStart = new int[ringCount + 1];
+        this.ringMinLat = new float[ringCount];
+        this.ringMaxLat = new float[ringCount];
+        this.ringMinLng = new float[ringCount];
+        this.ringMaxLng = new float[ringCount];
+
+        int pointCount = 0;
+        for (float[] points : ringPoints) {
+            pointCount += points.length / 2;
+        }
+        this.lats = new float[pointCount];
+        this.lngs = new float[pointCount];
+
+        int p = 0;
+        for (int r = 0; r < ringCount; r++) {
+            float[] points = ringPoints.get(r);
+            this.ringCountry[r] = ringCountry.get(r);
+            this.ringStart[r] = p;
+            float minLat = Float.MAX_VALUE, maxLat = -Float.MAX_VALUE;
+            float minLng = Float.MAX_VALUE, maxLng = -Float.MAX_VALUE;
+            for (int i = 0; i < points.length; i += 2) {
+                lats[p] = points[i];
+                lngs[p] = points[i + 1];
+                minLat = Math.min(minLat, points[i]);
+                maxLat = Math.max(maxLat, points[i]);
+                minLng = Math.min(minLng, points[i + 1]);
+                maxLng = Math.max(maxLng, points[i + 1]);
+                p++;
+            }
+            ringMinLat[r] = minLat;
+            ringMaxLat[r] = maxLat;
+            ringMinLng[r] = minLng;
+            ringMaxLng[r] = maxLng;
+        }
+        this.ringStart[ringCount] = p;
+
+        // بناء الفهرس على مرحلتين: العد ثم التعبئة
+        this.cellStart = new int[ROWS * COLUMNS + 1];
+        for (int r = 0; r < ringCount; r++) {
+            forEachCell(r, cell -> cellStart[cell + 1]++);
+        }
+        for (int c = 0; c < ROWS * COLUMNS; c++) {
+            cellStart[c + 1] += cellStart[c];
+        }
+        this.cellRings = new int[cellStart[ROWS * COLUMNS]];
+        int[] fill = new int[ROWS * COLUMNS];
+        for (int r = 0; r < ringCount; r++) {
+            final int ring = r;
+            forEachCell(r, cell -> cellRings[cellStart[cell] + fill[cell]++] = ring);
+        }
+    }
+
+    private interface CellVisitor {
+        void visit(int cell);
+    }
+
+    // الخلايا التي يغطيها المستطيل المحيط؛ الأعمدة تلتف حول خط الطول 180
+    private void forEachCell(int ring, CellVisitor visitor) {
+        int fromRow = row(ringMinLat[ring]);
+        int toRow = row(ringMaxLat[ring]);
+        int fromColumn = (int) Math.floor((ringMinLng[ring] + 180) / CELL_DEGREES);
+        int toColumn = (int) Math.floor((ringMaxLng[ring] + 180) / CELL_DEGREES);
+        for (int row = fromRow; row <= toRow; row++) {
+            for (int column = fromColumn; column <= toColumn; column++) {
+                visitor.visit(row * COLUMNS + Math.floorMod(column, COLUMNS));
+            }
+        }
+    }
+
+    private static int row(double latitude) {
+        int row = (int) Math.floor((latitude + 90) / CELL_DEGREES);
+        return Math.max(0, Math.min(ROWS - 1, row));
+    }
+
+    /**
+     * قراءة المضلعات من ملف الأصول. كل سطر: الاسم;lat,lng;lat,lng;...
+     */
+    public static CountryLocator load(InputStream input) throws IOException {
+        List<String> names = new ArrayList<>();
+        List<Integer> ringCountry = new ArrayList<>();
+        List<float[]> ringPoints = new ArrayList<>();
+
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        try {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) continue;
+
+                String[] parts = line.split(";");
+                if (parts.length < 4) continue;
+
+                int country = names.indexOf(parts[0]);
+                if (country < 0) {
+                    country = names.size();
+                    names.add(parts[0]);
+                }
+
+                float[] points = new float[(parts.length - 1) * 2];
+                for (int i = 1; i < parts.length; i++) {
+                    int comma = parts[i].indexOf(',');
+                    points[(i - 1) * 2] = Float.parseFloat(parts[i].substring(0, comma));
+                    points[(i - 1) * 2 + 1] = Float.parseFloat(parts[i].substring(comma + 1));
+                }
+                ringCountry.add(country);
+                ringPoints.add(points);
+            }
+        } finally {
+            reader.close();
+        }
+
+        return new CountryLocator(names, ringCountry, ringPoints);
+    }
+
+    /**
+     * @return اسم الدولة أو null إذا كان الموقع خارج كل المضلعات
+     */
+    public String findCountry(double latitude, double longitude) {
+        int ring = findRing(latitude, longitude);
+        return ring < 0 ? null : names[ringCountry[ring]];
+    }
+
+    private int findRing(double latitude, double longitude) {
+        if (Double.isNaN(latitude) || Double.isNaN(longitude)) return -1;
+
+        // توحيد خط الطول إلى [-180, 180)
+        double lng = longitude - 360 * Math.floor((longitude + 180) / 360);
+        int column = Math.floorMod((int) Math.floor((lng + 180) / CELL_DEGREES), COLUMNS);
+        int cell = row(latitude) * COLUMNS + column;
+
+        for (int i = cellStart[cell]; i < cellStart[cell + 1]; i++) {
+            int ring = cellRings[i];
+            // المضلعات العابرة لخط التاريخ مخزنة بخطوط طول أكبر من 180
+            double x = lng < ringMinLng[ring] ? lng + 360 : lng;
+            if (latitude < ringMinLat[ring] || latitude > ringMaxLat[ring]
+                    || x < ringMinLng[ring] || x > ringMaxLng[ring]) {
+                continue;
+            }
+            if (contains(ring, latitude, x)) {
+                return ring;
+            }
+        }
+        return -1;
+    }
+
+    // اختبار نقطة داخل مضلع بطريقة تتبع الشعاع (عدد مرات عبور الأضلاع)
+    private boolean contains(int ring, double latitude, double longitude) {
+        boolean inside = false;
+        int end = ringStart[ring + 1];
+        for (int i = ringStart[ring], j = end - 1; i < end; j = i++) {
+            if ((lats[i] > latitude) != (lats[j] > latitude)
+                    && longitude < (lngs[j] - lngs[i]) * (latitude - lats[i]) / (lats[j] - lats[i]) + lngs[i]) {
+                inside = !inside;
+            }
+        }
+        return inside;
+    }
+}
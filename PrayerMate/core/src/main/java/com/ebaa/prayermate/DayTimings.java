@@ -0,0 +1,162 @@
+package com.ebaa.prayermate;
+
+import java.util.TimeZone;
+
+/**
+ * النموذج الأساسي لأوقات يوم واحد: رقم اليوم منذ 1970-01-01، فرق التوقيت عن UTC
+ * والأوقات الست كدقائق منذ منتصف الليل في short[] (12 بايت لليوم).
+ * الأوقات تصاعدية، وما يقع بعد منتصف الليل التالي يكون 1440 أو أكثر.
+ * التحويل إلى نص يتم فقط عند العرض في PrayerTimesAdapter.
+ */
+public class DayTimings {
+
+    private final long epochDay;
+    private final int utcOffsetMinutes;
+    private final short[] minutes;
+
+    public DayTimings(long epochDay, int utcOffsetMinutes, short[] minutes) {
+        this.epochDay = epochDay;
+        this.utcOffsetMinutes = utcOffsetMinutes;
+        this.minutes = minutes;
+    }
+
+    public DayTimings(long epochDay, int utcOffsetMinutes, int[] minutes) {
+        this(epochDay, utcOffsetMinutes, pack(minutes));
+    }
+
+    public long getEpochDay() {
+        return epochDay;
+    }
+
+    public int getUtcOffsetMinutes() {
+        return utcOffsetMinutes;
+    }
+
+    public int getMinutes(int prayer) {
+        return minutes[prayer];
+    }
+
+    public int size() {
+        return minutes.length;
+    }
+
+    /**
+     * اللحظة المطلقة للصلاة بالمللي ثانية منذ 1970 (للمنبهات والجدولة)
+     */
+    public long getEpochMillis(int prayer) {
+        return ((epochDay * 24 * 60) + minutes[prayer] - utcOffsetMinutes) * 60_000L;
+    }
+
+    /**
+     * أول صلاة بعد الدقيقة المعطاة أو -1 إذا انتهت صلوات اليوم.
+     * الدقيقة محسوبة من منتصف ليل هذا اليوم، فبعد منتصف الليل التالي تكون 1440 أو أكثر.
+     * الأوقات مرتبة تصاعدياً، لذلك البحث ثنائي
+     */
+    public int nextAfter(int minuteOfDay, boolean skipSunrise) {
+        int low = 0;
+        int high = minutes.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (minutes[mid] > minuteOfDay) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+        if (skipSunrise && low == PrayerTimesCalculator.SUNRISE) {
+            low++;
+        }
+        return low < minutes.length ? low : -1;
+    }
+
+    private static short[] pack(int[] minutes) {
+        short[] packed = new short[minutes.length];
+        for (int i = 0; i < minutes.length; i++) {
+            packed[i] = (short) minutes[i];
+        }
+        return packed;
+    }
+
+    /**
+     * كتابة الوقت بصيغة HH:mm في مصفوفة حروف معادة الاستخدام بدون إنشاء نصوص.
+     * الأوقات بعد منتصف الليل تُكتب بساعة اليوم التالي (1454 تصبح 00:14)
+     */
+    public static void formatMinutes(int minuteOfDay, char[] out) {
+        minuteOfDay %= 24 * 60;
+        int hours = minuteOfDay / 60;
+        int minutes = minuteOfDay % 60;
+        out[0] = (char) ('0' + hours / 10);
+        out[1] = (char) ('0' + hours % 10);
+        out[2] = ':';
+        out[3] = (char) ('0' + minutes / 10);
+        out[4] = (char) ('0' + minutes % 10);
+    }
+
+    /**
+     * فرق توقيت الجهاز عن UTC بالدقائق في منتصف ذلك اليوم (يراعي التوقيت الصيفي)
+     */
+    public static int localUtcOffsetMinutes(long epochDay) {
+        long noonUtc = epochDay * 24 * 60 * 60_000L + 12 * 60 * 60_000L;
+        return TimeZone.getDefault().getOffset(noonUtc) / 60_000;
+    }
+
+    /**
+     * تحويل تاريخ ميلادي إلى رقم اليوم (بدون java.time لأنه يحتاج API 26)
+     */
+    public static long epochDay(int year, int month, int day) {
+        int y = month <= 2 ? year - 1 : year;
+        int era = (y >= 0 ? y : y - 399) / 400;
+        int yoe = y - era * 400;
+        int doy = (153 * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+        int doe = yoe * 365 + yoe / 4 - yoe / 100 + doy;
+        return era * 146097L + doe - 719468;
+    }
+
+    /**
+     * تحويل تاريخ Aladhan بصيغة dd-MM-yyyy إلى رقم اليوم
+     */
+    public static long parseEpochDay(String date) {
+        int day = Integer.parseInt(date.substring(0, 2));
+        int month = Integer.parseInt(date.substring(3, 5));
+        int year = Integer.parseInt(date.substring(6, 10));
+        return epochDay(year, month, day);
+    }
+
+    /**
+     * عكس parseEpochDay: رقم اليوم إلى تاريخ بصيغة dd-MM-yyyy كما في gregorian.date
+     */
+    public static String formatEpochDay(long epochDay) {
+        long z = epochDay + 719468;
+        long era = (z >= 0 ? z : z - 146096) / 146097;
+        long doe = z - era * 146097;
+        long yoe = (doe - doe / 1460 + doe / 36524 - doe / 146096) / 365;
+        long doy = doe - (365 * yoe + yoe / 4 - yoe / 100);
+        long mp = (5 * doy + 2) / 153;
+        int day = (int) (doy - (153 * mp + 2) / 5 + 1);
+        int month = (int) (mp < 10 ? mp + 3 : mp - 9);
+        long year = yoe + era * 400 + (month <= 2 ? 1 : 0);
+
+        char[] out = new char[10];
+        out[0] = (char) ('0' + day / 10);
+        out[1] = (char) ('0' + day % 10);
+        out[2] = '-';
+        out[3] = (char) ('0' + month / 10);
+        out[4] = (char) ('0' + month % 10);
+        out[5] = '-';
+        for (int i = 9; i >= 6; i--) {
+            out[i] = (char) ('0' + year % 10);
+            year /= 10;
+        }
+        return new String(out);
+    }
+
+    /**
+     * تحويل وقت Aladhan مثل "04:34 (EET)" إلى دقائق منذ منتصف الليل
+     */
+    public static int parseMinutes(String time) {
+        if (time == null || time.length() < 5) return 0;
+        int hours = (time.charAt(0) - '0') * 10 + (time.charAt(1) - '0');
+        int minutes = (time.charAt(3) - '0') * 10 + (time.charAt(4) - '0');
+        return hours * 60 + minutes;
+    }
+}
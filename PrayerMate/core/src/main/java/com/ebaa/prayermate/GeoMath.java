@@ -0,0 +1,55 @@
+package com.ebaa.prayermate;
+
+/**
+ * حسابات الدائرة العظمى المستخدمة في شاشة القبلة: الاتجاه الابتدائي والمسافة.
+ */
+public final class GeoMath {
+
+    // إحداثيات الكعبة المشرفة (دقيقة)
+    public static final double KAABA_LATITUDE = 21.4224779;
+    public static final double KAABA_LONGITUDE = 39.8251832;
+
+    public static final double EARTH_RADIUS_KM = 6371.0;
+
+    private GeoMath() {
+    }
+
+    /**
+     * الاتجاه الابتدائي على الدائرة العظمى من النقطة الأولى للثانية بالدرجات [0, 360) من الشمال الحقيقي
+     */
+    public static double initialBearing(double lat1, double lng1, double lat2, double lng2) {
+        double phi1 = Math.toRadians(lat1);
+        double phi2 = Math.toRadians(lat2);
+        double deltaLon = Math.toRadians(lng2 - lng1);
+
+        double y = Math.sin(deltaLon) * Math.cos(phi2);
+        double x = Math.cos(phi1) * Math.sin(phi2)
+                - Math.sin(phi1) * Math.cos(phi2) * Math.cos(deltaLon);
+
+        double bearing = Math.toDegrees(Math.atan2(y, x));
+        return (bearing + 360) % 360;
+    }
+
+    /**
+     * المسافة بصيغة Haversine بالكيلومتر
+     */
+    public static double distanceKm(double lat1, double lng1, double lat2, double lng2) {
+        double phi1 = Math.toRadians(lat1);
+        double phi2 = Math.toRadians(lat2);
+        double deltaLat = phi2 - phi1;
+        double deltaLon = Math.toRadians(lng2 - lng1);
+
+        double sinLat = Math.sin(deltaLat / 2);
+        double sinLon = Math.sin(deltaLon / 2);
+        double a = sinLat * sinLat + Math.cos(phi1) * Math.cos(phi2) * sinLon * sinLon;
+        return EARTH_RADIUS_KM * 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
+    }
+
+    public static double qiblaBearing(double latitude, double longitude) {
+        return initialBearing(latitude, longitude, KAABA_LATITUDE, KAABA_LONGITUDE);
+    }
+
+    public static double qiblaDistanceKm(double latitude, double longitude) {
+        return distanceKm(latitude, longitude, KAABA_LATITUDE, KAABA_LONGITUDE);
+    }
+}
@@ -0,0 +1,38 @@
+package com.ebaa.prayermate;
+
+import java.util.Locale;
+
+/**
+ * اسم مفهوم للموقع من الفهارس المحلية: "المدينة، الدولة" أو الدولة مع الإحداثيات
+ * أو الإحداثيات فقط. لا يحتفظ بأي حالة؛ الفهارس تُمرر مع كل استدعاء.
+ */
+public final class LocationNames {
+
+    private LocationNames() {
+    }
+
+    /**
+     * @param countries    فهرس الدول أو null إذا لم يُحمّل
+     * @param cities       فهرس المدن أو null إذا لم يُحمّل
+     * @param cityRadiusKm أقصى بعد لأقرب مدينة حتى يُستخدم اسمها
+     */
+    public static String describe(CountryLocator countries, CityGazetteer cities,
+                                  double latitude, double longitude, double cityRadiusKm) {
+        // تحديد الدولة من المضلعات المفهرسة
+        String country = countries != null ? countries.findCountry(latitude, longitude) : null;
+
+        // أقرب مدينة من الفهرس المحلي
+        int city = cities != null ? cities.nearest(latitude, longitude, cityRadiusKm) : -1;
+        if (city >= 0) {
+            String cityName = cities.getName(city);
+            return country != null ? cityName + "، " + country : cityName;
+        }
+
+        if (country != null) {
+            return String.format(Locale.getDefault(), "%s (%.4f, %.4f)", country, latitude, longitude);
+        }
+
+        // عرض رسالة واضحة مع الإحداثيات
+        return String.format(Locale.getDefault(), "موقع غير محدد (%.4f, %.4f)", latitude, longitude);
+    }
+}
@@ -0,0 +1,276 @@
+package com.ebaa.prayermate;
+
+/**
+ * معايرة المغناطيس بنموذج القطع الناقص: انحياز ثابت (hard-iron) ومصفوفة تشويه (soft-iron).
+ * قراءات المغناطيس أثناء حركة الرقم 8 تقع على قطع ناقص بدلاً من كرة؛ المعايرة تنقل
+ * المركز إلى الصفر وتعيد شكل القطع إلى كرة بنفس متوسط شدة المجال.
+ *
+ * التصحيح لكل قراءة: out = W · (in - b)، أي 3 طرح و 9 ضرب وجمع.
+ * الكائن غير قابل للتغيير فيمكن استبداله بين الخيوط بمرجع volatile.
+ */
+public class MagnetometerCalibration {
+
+    /** عدد القيم المحفوظة: الانحياز (3) ثم المصفوفة صفاً صفاً (9) */
+    public static final int PARAMETER_COUNT = 12;
+
+    public static final MagnetometerCalibration IDENTITY =
+            new MagnetometerCalibration(new float[]{0, 0, 0, 1, 0, 0, 0, 1, 0, 0, 0, 1});
+
+    // أقل عدد قراءات وأقصى نسبة بين محوري القطع الناقص قبل رفض الملاءمة
+    private static final int MIN_SAMPLES = 100;
+    private static final double MAX_AXIS_RATIO = 2.5;
+    private static final double MAX_RESIDUAL = 0.1;
+
+    private final float bx, by, bz;
+    private final float w00, w01, w02, w10, w11, w12, w20, w21, w22;
+
+    public MagnetometerCalibration(float[] parameters) {
+        bx = parameters[0];
+        by = parameters[1];
+        bz = parameters[2];
+        w00 = parameters[3];
+        w01 = parameters[4];
+        w02 = parameters[5];
+        w10 = parameters[6];
+        w11 = parameters[7];
+        w12 = parameters[8];
+        w20 = parameters[9];
+        w21 = parameters[10];
+        w22 = parameters[11];
+    }
+
+    public float[] getParameters() {
+        return new float[]{bx, by, bz, w00, w01, w02, w10, w11, w12, w20, w21, w22};
+    }
+
+    public boolean isIdentity() {
+        return this == IDENTITY;
+    }
+
+    /**
+     * تصحيح قراءة واحدة؛ in و out يمكن أن يكونا نفس المصفوفة
+     */
+    public void apply(float[] in, float[] out) {
+        float x = in[0] - bx;
+        float y = in[1] - by;
+        float z = in[2] - bz;
+        out[0] = w00 * x + w01 * y + w02 * z;
+        out[1] = w10 * x + w11 * y + w12 * z;
+        out[2] = w20 * x + w21 * y + w22 * z;
+    }
+
+    /**
+     * ملاءمة قطع ناقص عام لقراءات خام (x, y, z متتالية).
+     *
+     * @return المعايرة أو null إذا كانت القراءات لا تغطي اتجاهات كافية
+     */
+    public static MagnetometerCalibration fit(float[] samples, int count) {
+        if (count < MIN_SAMPLES) return null;
+
+        // توسيط وتحجيم أولي لتحسين حالة المعادلات العددية
+        double cx = 0, cy = 0, cz = 0;
+        for (int i = 0; i < count; i++) {
+            cx += samples[i * 3];
+            cy += samples[i * 3 + 1];
+            cz += samples[i * 3 + 2];
+        }
+        cx /= count;
+        cy /= count;
+        cz /= count;
+        double scale = 0;
+        for (int i = 0; i < count; i++) {
+            double x = samples[i * 3] - cx, y = samples[i * 3 + 1] - cy, z = samples[i * 3 + 2] - cz;
+            scale += Math.sqrt(x * x + y * y + z * z);
+        }
+        scale /= count;
+        if (scale <= 0) return null;
+
+        // المربعات الصغرى للمعادلة:
+        // a x² + b y² + c z² + 2f yz + 2g xz + 2h xy + 2p x + 2q y + 2r z = 1
+        double[][] normal = new double[9][10];
+        double[] row = new double[9];
+        for (int i = 0; i < count; i++) {
+            double x = (samples[i * 3] - cx) / scale;
+            double y = (samples[i * 3 + 1] - cy) / scale;
+            double z = (samples[i * 3 + 2] - cz) / scale;
+            row[0] = x * x;
+            row[1] = y * y;
+            row[2] = z * z;
+            row[3] = 2 * y * z;
+            row[4] = 2 * x * z;
+            row[5] = 2 * x * y;
+            row[6] = 2 * x;
+            row[7] = 2 * y;
+            row[8] = 2 * z;
+            for (int j = 0; j < 9; j++) {
+                for (int k = j; k < 9; k++) {
+                    normal[j][k] += row[j] * row[k];
+                }
+                normal[j][9] += row[j];
+            }
+        }
+        for (int j = 0; j < 9; j++) {
+            for (int k = 0; k < j; k++) {
+                normal[j][k] = normal[k][j];
+            }
+        }
+        double[] p = solve(normal);
+        if (p == null) return null;
+
+        double[][] a = {
+                {p[0], p[5], p[4]},
+                {p[5], p[1], p[3]},
+                {p[4], p[3], p[2]}
+        };
+        double[][] inverse = invert3(a);
+        if (inverse == null) return null;
+
+        // المركز c = -A⁻¹ v، ثم xᵀ A x = 1 - vᵀ c بعد النقل إلى المركز
+        double[] v = {p[6], p[7], p[8]};
+        double[] center = new double[3];
+        for (int j = 0; j < 3; j++) {
+            center[j] = -(inverse[j][0] * v[0] + inverse[j][1] * v[1] + inverse[j][2] * v[2]);
+        }
+        double k = 1 - (v[0] * center[0] + v[1] * center[1] + v[2] * center[2]);
+        if (k <= 0) return null;
+        for (int j = 0; j < 3; j++) {
+            for (int l = 0; l < 3; l++) {
+                a[j][l] /= k;
+            }
+        }
+
+        // A = V D Vᵀ؛ أنصاف المحاور 1/√d
+        double[][] vectors = new double[3][3];
+        double[] values = jacobiEigen(a, vectors);
+        double minValue = Math.min(values[0], Math.min(values[1], values[2]));
+        double maxValue = Math.max(values[0], Math.max(values[1], values[2]));
+        if (minValue <= 0 || Math.sqrt(maxValue / minValue) > MAX_AXIS_RATIO) return null;
+
+        // W = V √D Vᵀ · نصف القطر، ونصف القطر هو المتوسط الهندسي لأنصاف المحاور
+        double radius = Math.pow(values[0] * values[1] * values[2], -1.0 / 6.0);
+        double[][] w = new double[3][3];
+        for (int j = 0; j < 3; j++) {
+            for (int l = 0; l < 3; l++) {
+                double sum = 0;
+                for (int e = 0; e < 3; e++) {
+                    sum += vectors[j][e] * Math.sqrt(values[e]) * vectors[l][e];
+                }
+                w[j][l] = sum * radius;
+            }
+        }
+
+        float[] parameters = {
+                (float) (cx + center[0] * scale),
+                (float) (cy + center[1] * scale),
+                (float) (cz + center[2] * scale),
+                (float) w[0][0], (float) w[0][1], (float) w[0][2],
+                (float) w[1][0], (float) w[1][1], (float) w[1][2],
+                (float) w[2][0], (float) w[2][1], (float) w[2][2]
+        };
+        MagnetometerCalibration calibration = new MagnetometerCalibration(parameters);
+
+        // رفض الملاءمة إذا بقيت القراءات المصححة بعيدة عن الكرة
+        float[] corrected = new float[3];
+        float[] sample = new float[3];
+        double target = radius * scale;
+        double error = 0;
+        for (int i = 0; i < count; i++) {
+            System.arraycopy(samples, i * 3, sample, 0, 3);
+            calibration.apply(sample, corrected);
+            double length = Math.sqrt(corrected[0] * corrected[0]
+                    + corrected[1] * corrected[1] + corrected[2] * corrected[2]);
+            error += (length - target) * (length - target);
+        }
+        if (Math.sqrt(error / count) / target > MAX_RESIDUAL) return null;
+
+        return calibration;
+    }
+
+    // حذف غاوس مع اختيار المحور على مصفوفة موسعة n × (n + 1)
+    private static double[] solve(double[][] m) {
+        int n = m.length;
+        for (int col = 0; col < n; col++) {
+            int pivot = col;
+            for (int r = col + 1; r < n; r++) {
+                if (Math.abs(m[r][col]) > Math.abs(m[pivot][col])) pivot = r;
+            }
+            if (Math.abs(m[pivot][col]) < 1e-12) return null;
+            double[] tmp = m[col];
+            m[col] = m[pivot];
+            m[pivot] = tmp;
+
+            for (int r = col + 1; r < n; r++) {
+                double factor = m[r][col] / m[col][col];
+                for (int c = col; c <= n; c++) {
+                    m[r][c] -= factor * m[col][c];
+                }
+            }
+        }
+        double[] x = new double[n];
+        for (int r = n - 1; r >= 0; r--) {
+            double sum = m[r][n];
+            for (int c = r + 1; c < n; c++) {
+                sum -= m[r][c] * x[c];
+            }
+            x[r] = sum / m[r][r];
+        }
+        return x;
+    }
+
+    private static double[][] invert3(double[][] a) {
+        double c00 = a[1][1] * a[2][2] - a[1][2] * a[2][1];
+        double c01 = a[1][2] * a[2][0] - a[1][0] * a[2][2];
+        double c02 = a[1][0] * a[2][1] - a[1][1] * a[2][0];
+        double det = a[0][0] * c00 + a[0][1] * c01 + a[0][2] * c02;
+        if (Math.abs(det) < 1e-12) return null;
+        return new double[][]{
+                {c00 / det, (a[0][2] * a[2][1] - a[0][1] * a[2][2]) / det, (a[0][1] * a[1][2] - a[0][2] * a[1][1]) / det},
+                {c01 / det, (a[0][0] * a[2][2] - a[0][2] * a[2][0]) / det, (a[0][2] * a[1][0] - a[0][0] * a[1][2]) / det},
+                {c02 / det, (a[0][1] * a[2][0] - a[0][0] * a[2][1]) / det, (a[0][0] * a[1][1] - a[0][1] * a[1][0]) / det}
+        };
+    }
+
+    // قيم ومتجهات ذاتية لمصفوفة متماثلة 3×3 بدورانات Jacobi؛ المتجهات أعمدة في vectors
+    private static double[] jacobiEigen(double[][] source, double[][] vectors) {
+        double[][] a = new double[3][3];
+        for (int i = 0; i < 3; i++) {
+            System.arraycopy(source[i], 0, a[i], 0, 3);
+            vectors[i][0] = vectors[i][1] = vectors[i][2] = 0;
+            vectors[i][i] = 1;
+        }
+
+        for (int sweep = 0; sweep < 50; sweep++) {
+            double off = a[0][1] * a[0][1] + a[0][2] * a[0][2] + a[1][2] * a[1][2];
+            if (off < 1e-20) break;
+
+            for (int p = 0; p < 2; p++) {
+                for (int q = p + 1; q < 3; q++) {
+                    if (Math.abs(a[p][q]) < 1e-30) continue;
+
+                    double theta = (a[q][q] - a[p][p]) / (2 * a[p][q]);
+                    double t = Math.signum(theta) / (Math.abs(theta) + Math.sqrt(theta * theta + 1));
+                    if (theta == 0) t = 1;
+                    double c = 1 / Math.sqrt(t * t + 1);
+                    double s = t * c;
+
+                    for (int k = 0; k < 3; k++) {
+                        double akp = a[k][p], akq = a[k][q];
+                        a[k][p] = c * akp - s * akq;
+                        a[k][q] = s * akp + c * akq;
+                    }
+                    for (int k = 0; k < 3; k++) {
+                        double apk = a[p][k], aqk = a[q][k];
+                        a[p][k] = c * apk - s * aqk;
+                        a[q][k] = s * apk + c * aqk;
+                    }
+                    for (int k = 0; k < 3; k++) {
+                        double vkp = vectors[k][p], vkq = vectors[k][q];
+                        vectors[k][p] = c * vkp - s * vkq;
+                        vectors[k][q] = s * vkp + c * vkq;
+                    }
+                }
+            }
+        }
+        return new double[]{a[0][0], a[1][1], a[2][2]};
+    }
+}
@@ -0,0 +1,265 @@
+package com.ebaa.prayermate;
+
+/**
+ * دمج الجيروسكوب مع الجاذبية والمجال المغناطيسي بمرشح تكميلي على رباعي (Mahony).
+ * الجيروسكوب يُكامل مع كل قراءة فيستجيب الاتجاه فوراً عند الدوران،
+ * والتسارع والمغناطيس يصححان الانجراف ببطء بكسب يتغير حسب موثوقية كل منهما:
+ * دقة المستشعر المعلنة، وبعد شدة المجال عن قيمته المعتادة، وبعد التسارع عن g.
+ *
+ * الإطار العالمي: x شرق، y شمال، z أعلى (نفس إطار SensorManager.getRotationMatrix).
+ * الرباعي q يحول من إطار الجهاز إلى الإطار العالمي. لا ينشئ أي كائنات بعد البناء.
+ */
+public class OrientationFilter {
+
+    private static final float GRAVITY = 9.81f;
+
+    // كسب التصحيح التناسبي والتكاملي (التكاملي يقدر انحياز الجيروسكوب)
+    private static final float KP_GRAVITY = 2.0f;
+    private static final float KP_MAGNETIC = 1.0f;
+    private static final float KI = 0.1f;
+
+    // أقصى فاصل زمني يُكامل دفعة واحدة (بعد توقف المستشعر مثلاً)
+    private static final float MAX_DT = 0.1f;
+
+    private float q0 = 1f, q1, q2, q3;
+    private boolean initialized;
+
+    // تقدير انحياز الجيروسكوب (rad/s)
+    private float biasX, biasY, biasZ;
+    private long lastGyroTimestamp;
+
+    // آخر قراءة تسارع ومغناطيس (غير مطبّعة)
+    private final float[] acceleration = new float[3];
+    private final float[] magnetic = new float[3];
+    private boolean hasAcceleration, hasMagnetic;
+
+    // شدة المجال المعتادة في هذا المكان (متوسط بطيء) لاكتشاف التشويش
+    private float fieldStrength;
+    private float magneticWeight = 1f;
+
+    // آخر فرق بين اتجاه المغناطيس والاتجاه المدموج (درجات)
+    private float magneticResidual;
+
+    // مصفوفة الدوران الحالية (صفوف) محسوبة من الرباعي
+    private final float[] r = new float[9];
+
+    /**
+     * وزن المغناطيس من دقة المستشعر المعلنة (1 عالية ... 0.2 غير موثوقة)
+     */
+    public void setMagneticWeight(float weight) {
+        magneticWeight = Math.max(0f, Math.min(1f, weight));
+    }
+
+    public void updateAccelerometer(float x, float y, float z) {
+        acceleration[0] = x;
+        acceleration[1] = y;
+        acceleration[2] = z;
+        hasAcceleration = true;
+        if (!initialized) initializeFromVectors();
+    }
+
+    public void updateMagnetometer(float x, float y, float z) {
+        magnetic[0] = x;
+        magnetic[1] = y;
+        magnetic[2] = z;
+        hasMagnetic = true;
+
+        float strength = (float) Math.sqrt(x * x + y * y + z * z);
+        fieldStrength = fieldStrength == 0f ? strength : fieldStrength + 0.01f * (strength - fieldStrength);
+        if (!initialized) initializeFromVectors();
+    }
+
+    /**
+     * @param timestampNanos طابع الحدث من SensorEvent.timestamp
+     */
+    public void updateGyroscope(float gx, float gy, float gz, long timestampNanos) {
+        if (!initialized) {
+            lastGyroTimestamp = timestampNanos;
+            return;
+        }
+        float dt = lastGyroTimestamp == 0 ? 0f : (timestampNanos - lastGyroTimestamp) * 1e-9f;
+        lastGyroTimestamp = timestampNanos;
+        if (dt <= 0f) return;
+        dt = Math.min(dt, MAX_DT);
+
+        updateRotationMatrix();
+
+        // خطأ الاتجاه: حاصل ضرب متجهي بين المقيس والمتوقع في إطار الجهاز
+        float ex = 0f, ey = 0f, ez = 0f;
+
+        float gravityGain = gravityGain();
+        if (gravityGain > 0f) {
+            float norm = norm(acceleration);
+            float ax = acceleration[0] / norm, ay = acceleration[1] / norm, az = acceleration[2] / norm;
+            // الاتجاه "أعلى" المتوقع في إطار الجهاز = الصف الثالث من R
+            float vx = r[6], vy = r[7], vz = r[8];
+            ex += gravityGain * (ay * vz - az * vy);
+            ey += gravityGain * (az * vx - ax * vz);
+            ez += gravityGain * (ax * vy - ay * vx);
+        }
+
+        float magneticGain = magneticGain();
+        if (hasMagnetic) {
+            float norm = norm(magnetic);
+            if (norm > 0f) {
+                float mx = magnetic[0] / norm, my = magnetic[1] / norm, mz = magnetic[2] / norm;
+
+                // المجال في الإطار العالمي: زاوية مركبته الأفقية عن محور الشمال هي خطأ الاتجاه
+                float hx = r[0] * mx + r[1] * my + r[2] * mz;
+                float hy = r[3] * mx + r[4] * my + r[5] * mz;
+                float yawError = (float) Math.atan2(hx, hy);
+                magneticResidual = (float) -Math.toDegrees(yawError);
+
+                // التصحيح حول المحور الرأسي فقط حتى لا يفسد تشويش المغناطيس الميل
+                if (magneticGain > 0f) {
+                    ex += magneticGain * yawError * r[6];
+                    ey += magneticGain * yawError * r[7];
+                    ez += magneticGain * yawError * r[8];
+                }
+            }
+        }
+
+        // تقدير الانحياز ثم تصحيح السرعة الزاوية
+        biasX += KI * ex * dt;
+        biasY += KI * ey * dt;
+        biasZ += KI * ez * dt;
+        gx += ex + biasX;
+        gy += ey + biasY;
+        gz += ez + biasZ;
+
+        // q̇ = ½ q ⊗ (0, ω)
+        float half = 0.5f * dt;
+        float dq0 = (-q1 * gx - q2 * gy - q3 * gz) * half;
+        float dq1 = (q0 * gx + q2 * gz - q3 * gy) * half;
+        float dq2 = (q0 * gy - q1 * gz + q3 * gx) * half;
+        float dq3 = (q0 * gz + q1 * gy - q2 * gx) * half;
+        q0 += dq0;
+        q1 += dq1;
+        q2 += dq2;
+        q3 += dq3;
+        normalize();
+    }
+
+    // وزن الجاذبية يقل عندما يكون الجهاز متسارعاً (المشي، الاهتزاز)
+    private float gravityGain() {
+        if (!hasAcceleration) return 0f;
+        float deviation = Math.abs(norm(acceleration) - GRAVITY) / GRAVITY;
+        return KP_GRAVITY * Math.max(0f, 1f - deviation * 5f);
+    }
+
+    // وزن المغناطيس يقل مع ضعف الدقة المعلنة أو تغير شدة المجال (معادن قريبة)
+    private float magneticGain() {
+        if (!hasMagnetic || fieldStrength <= 0f) return 0f;
+        float deviation = Math.abs(norm(magnetic) - fieldStrength) / fieldStrength;
+        return KP_MAGNETIC * magneticWeight * Math.max(0f, 1f - deviation * 4f);
+    }
+
+    // أول اتجاه مباشرة من التسارع والمغناطيس حتى لا ينتظر المرشح ثواني ليتقارب
+    private void initializeFromVectors() {
+        if (!hasAcceleration || !hasMagnetic) return;
+
+        float ax = acceleration[0], ay = acceleration[1], az = acceleration[2];
+        float mx = magnetic[0], my = magnetic[1], mz = magnetic[2];
+
+        // شرق = m × a، شمال = a × شرق (نفس طريقة getRotationMatrix)
+        float ex = my * az - mz * ay, ey = mz * ax - mx * az, ez = mx * ay - my * ax;
+        float normE = (float) Math.sqrt(ex * ex + ey * ey + ez * ez);
+        float normA = (float) Math.sqrt(ax * ax + ay * ay + az * az);
+        if (normE < 0.1f || normA < 0.1f) return;
+        ex /= normE;
+        ey /= normE;
+        ez /= normE;
+        ax /= normA;
+        ay /= normA;
+        az /= normA;
+        float nx = ay * ez - az * ey, ny = az * ex - ax * ez, nz = ax * ey - ay * ex;
+
+        // تحويل المصفوفة (صفوفها شرق، شمال، أعلى) إلى رباعي
+        float trace = ex + ny + az;
+        if (trace > 0f) {
+            float s = (float) Math.sqrt(trace + 1f) * 2f;
+            q0 = 0.25f * s;
+            q1 = (ay - nz) / s;
+            q2 = (ez - ax) / s;
+            q3 = (nx - ey) / s;
+        } else if (ex > ny && ex > az) {
+            float s = (float) Math.sqrt(1f + ex - ny - az) * 2f;
+            q0 = (ay - nz) / s;
+            q1 = 0.25f * s;
+            q2 = (ey + nx) / s;
+            q3 = (ez + ax) / s;
+        } else if (ny > az) {
+            float s = (float) Math.sqrt(1f + ny - ex - az) * 2f;
+            q0 = (ez - ax) / s;
+            q1 = (ey + nx) / s;
+            q2 = 0.25f * s;
+            q3 = (nz + ay) / s;
+        } else {
+            float s = (float) Math.sqrt(1f + az - ex - ny) * 2f;
+            q0 = (nx - ey) / s;
+            q1 = (ez + ax) / s;
+            q2 = (nz + ay) / s;
+            q3 = 0.25f * s;
+        }
+        normalize();
+        initialized = true;
+    }
+
+    public boolean isInitialized() {
+        return initialized;
+    }
+
+    public void reset() {
+        q0 = 1f;
+        q1 = q2 = q3 = 0f;
+        biasX = biasY = biasZ = 0f;
+        lastGyroTimestamp = 0;
+        hasAcceleration = false;
+        hasMagnetic = false;
+        fieldStrength = 0f;
+        magneticResidual = 0f;
+        initialized = false;
+    }
+
+    /**
+     * اتجاه محور y للجهاز عن الشمال المغناطيسي بالدرجات [0, 360)
+     */
+    public float getHeading() {
+        updateRotationMatrix();
+        float heading = (float) Math.toDegrees(Math.atan2(r[1], r[4]));
+        return (heading + 360) % 360;
+    }
+
+    /**
+     * الفرق بين ما يقيسه المغناطيس الآن والاتجاه المدموج (درجات، موجب مع عقارب الساعة).
+     * تشتته مقياس لتشويش المجال لا يتأثر بدوران المستخدم.
+     */
+    public float getMagneticResidual() {
+        return magneticResidual;
+    }
+
+    private void updateRotationMatrix() {
+        float q00 = q0 * q0, q11 = q1 * q1, q22 = q2 * q2, q33 = q3 * q3;
+        r[0] = q00 + q11 - q22 - q33;
+        r[1] = 2f * (q1 * q2 - q0 * q3);
+        r[2] = 2f * (q1 * q3 + q0 * q2);
+        r[3] = 2f * (q1 * q2 + q0 * q3);
+        r[4] = q00 - q11 + q22 - q33;
+        r[5] = 2f * (q2 * q3 - q0 * q1);
+        r[6] = 2f * (q1 * q3 - q0 * q2);
+        r[7] = 2f * (q2 * q3 + q0 * q1);
+        r[8] = q00 - q11 - q22 + q33;
+    }
+
+    private void normalize() {
+        float norm = (float) Math.sqrt(q0 * q0 + q1 * q1 + q2 * q2 + q3 * q3);
+        q0 /= norm;
+        q1 /= norm;
+        q2 /= norm;
+        q3 /= norm;
+    }
+
+    private static float norm(float[] v) {
+        return (float) Math.sqrt(v[0] * v[0] + v[1] * v[1] + v[2] * v[2]);
+    }
+}
@@ -0,0 +1,200 @@
+package com.ebaa.prayermate;
+
+/**
+ * حساب أوقات الصلاة محلياً من موقع الشمس بدون أي اتصال بالشبكة.
+ * الخوارزمية مبنية على معادلات موقع الشمس التقريبية (الميل ومعادلة الزمن)
+ * وتعطي دقة في حدود دقيقة واحدة مقارنة بـ Aladhan لنفس طريقة الحساب.
+ */
+public class PrayerTimesCalculator {
+
+    public static final int FAJR = 0;
+    public static final int SUNRISE = 1;
+    public static final int DHUHR = 2;
+    public static final int ASR = 3;
+    public static final int MAGHRIB = 4;
+    public static final int ISHA = 5;
+    public static final int PRAYER_COUNT = 6;
+
+    // زاوية الشروق والغروب (نصف قطر الشمس + الانكسار الجوي)
+    private static final double SUNRISE_ANGLE = 0.833;
+
+    private final double fajrAngle;
+    private final double ishaAngle;
+    private final int asrShadowFactor;
+
+    public PrayerTimesCalculator(double fajrAngle, double ishaAngle, int asrShadowFactor) {
+        this.fajrAngle = fajrAngle;
+        this.ishaAngle = ishaAngle;
+        this.asrShadowFactor = asrShadowFactor;
+    }
+
+    /**
+     * الهيئة المصرية العامة للمساحة: الفجر 19.5° والعشاء 17.5° والعصر على المذهب الشافعي
+     */
+    public static PrayerTimesCalculator egyptian() {
+        return new PrayerTimesCalculator(19.5, 17.5, 1);
+    }
+
+    public int[] compute(double latitude, double longitude, int year, int month, int day,
+                         double timezoneHours) {
+        int[] out = new int[PRAYER_COUNT];
+        compute(latitude, longitude, year, month, day, timezoneHours, out);
+        return out;
+    }
+
+    /**
+     * يكتب الأوقات الست بالدقائق منذ منتصف الليل (بالتوقيت المحلي) في المصفوفة out
+     * بدون إنشاء أي كائنات جديدة. الأوقات تصاعدية دائماً، فالعشاء بعد منتصف الليل
+     * (صيفاً في خطوط العرض العالية) يُكتب 1440 دقيقة أو أكثر
+     */
+    public void compute(double latitude, double longitude, int year, int month, int day,
+                        double timezoneHours, int[] out) {
+        computeJulian(latitude, longitude, julianDate(year, month, day), timezoneHours, out);
+    }
+
+    /**
+     * أوقات يوم محدد برقمه منذ 1970-01-01 وفرق توقيته عن UTC بالدقائق
+     */
+    public DayTimings computeDay(double latitude, double longitude, long epochDay, int utcOffsetMinutes) {
+        int[] out = new int[PRAYER_COUNT];
+        // اليوم الجولياني لمنتصف ليل 1970-01-01 هو 2440587.5
+        computeJulian(latitude, longitude, epochDay + 2440587.5, utcOffsetMinutes / 60.0, out);
+        return new DayTimings(epochDay, utcOffsetMinutes, out);
+    }
+
+    private void computeJulian(double latitude, double longitude, double julianDay,
+                               double timezoneHours, int[] out) {
+        double jDate = julianDay - longitude / (15.0 * 24.0);
+
+        // تقديرات أولية للأوقات بالساعات تستخدم لحساب موقع الشمس عند كل وقت
+        double fajr = sunAngleTime(jDate, 5.0 / 24, latitude, fajrAngle, true);
+        double sunrise = sunAngleTime(jDate, 6.0 / 24, latitude, SUNRISE_ANGLE, true);
+        double dhuhr = midDay(jDate, 12.0 / 24);
+        double asr = asrTime(jDate, 13.0 / 24, latitude);
+        double sunset = sunAngleTime(jDate, 18.0 / 24, latitude, SUNRISE_ANGLE, false);
+        double isha = sunAngleTime(jDate, 18.0 / 24, latitude, ishaAngle, false);
+
+        // معالجة خطوط العرض العالية حيث لا تصل الشمس لزاوية الفجر أو العشاء
+        double night = timeDiff(sunset, sunrise);
+        double fajrLimit = sunrise - night * fajrAngle / 60.0;
+        if (Double.isNaN(fajr) || timeDiff(fajr, sunrise) > night * fajrAngle / 60.0) {
+            fajr = fajrLimit;
+        }
+        double ishaLimit = sunset + night * ishaAngle / 60.0;
+        if (Double.isNaN(isha) || timeDiff(sunset, isha) > night * ishaAngle / 60.0) {
+            isha = ishaLimit;
+        }
+
+        double offset = timezoneHours - longitude / 15.0;
+        out[FAJR] = toMinutes(fajr + offset);
+        out[SUNRISE] = toMinutes(sunrise + offset);
+        out[DHUHR] = toMinutes(dhuhr + offset);
+        out[ASR] = toMinutes(asr + offset);
+        out[MAGHRIB] = toMinutes(sunset + offset);
+        out[ISHA] = toMinutes(isha + offset);
+
+        for (int i = 1; i < PRAYER_COUNT; i++) {
+            if (out[i] < out[i - 1]) {
+                out[i] += 24 * 60;
+            }
+        }
+    }
+
+    // الميل الشمسي بالدرجات
+    private static double sunDeclination(double jd) {
+        double d = jd - 2451545.0;
+        double g = fixAngle(357.529 + 0.98560028 * d);
+        double q = fixAngle(280.459 + 0.98564736 * d);
+        double l = fixAngle(q + 1.915 * dSin(g) + 0.020 * dSin(2 * g));
+        double e = 23.439 - 0.00000036 * d;
+        return dArcSin(dSin(e) * dSin(l));
+    }
+
+    // معادلة الزمن بالساعات
+    private static double equationOfTime(double jd) {
+        double d = jd - 2451545.0;
+        double g = fixAngle(357.529 + 0.98560028 * d);
+        double q = fixAngle(280.459 + 0.98564736 * d);
+        double l = fixAngle(q + 1.915 * dSin(g) + 0.020 * dSin(2 * g));
+        double e = 23.439 - 0.00000036 * d;
+        double ra = dArcTan2(dCos(e) * dSin(l), dCos(l)) / 15.0;
+        return q / 15.0 - fixHour(ra);
+    }
+
+    private static double midDay(double jDate, double dayPortion) {
+        return fixHour(12 - equationOfTime(jDate + dayPortion));
+    }
+
+    private static double sunAngleTime(double jDate, double dayPortion, double latitude,
+                                       double angle, boolean beforeNoon) {
+        double decl = sunDeclination(jDate + dayPortion);
+        double noon = midDay(jDate, dayPortion);
+        double t = dArcCos((-dSin(angle) - dSin(decl) * dSin(latitude))
+                / (dCos(decl) * dCos(latitude))) / 15.0;
+        return noon + (beforeNoon ? -t : t);
+    }
+
+    // العصر: عندما يصبح ظل الشيء مثله (شافعي) أو مثليه (حنفي) بالإضافة لظل الزوال
+    private double asrTime(double jDate, double dayPortion, double latitude) {
+        double decl = sunDeclination(jDate + dayPortion);
+        double angle = -dArcCot(asrShadowFactor + dTan(Math.abs(latitude - decl)));
+        return sunAngleTime(jDate, dayPortion, latitude, angle, false);
+    }
+
+    private static double julianDate(int year, int month, int day) {
+        if (month <= 2) {
+            year -= 1;
+            month += 12;
+        }
+        double a = Math.floor(year / 100.0);
+        double b = 2 - a + Math.floor(a / 4.0);
+        return Math.floor(365.25 * (year + 4716)) + Math.floor(30.6001 * (month + 1)) + day + b - 1524.5;
+    }
+
+    private static int toMinutes(double hours) {
+        int minutes = (int) Math.round(fixHour(hours) * 60.0);
+        return minutes % (24 * 60);
+    }
+
+    private static double timeDiff(double from, double to) {
+        return fixHour(to - from);
+    }
+
+    private static double fixAngle(double a) {
+        a = a - 360.0 * Math.floor(a / 360.0);
+        return a < 0 ? a + 360.0 : a;
+    }
+
+    private static double fixHour(double h) {
+        h = h - 24.0 * Math.floor(h / 24.0);
+        return h < 0 ? h + 24.0 : h;
+    }
+
+    private static double dSin(double d) {
+        return Math.sin(Math.toRadians(d));
+    }
+
+    private static double dCos(double d) {
+        return Math.cos(Math.toRadians(d));
+    }
+
+    private static double dTan(double d) {
+        return Math.tan(Math.toRadians(d));
+    }
+
+    private static double dArcSin(double x) {
+        return Math.toDegrees(Math.asin(x));
+    }
+
+    private static double dArcCos(double x) {
+        return Math.toDegrees(Math.acos(x));
+    }
+
+    private static double dArcTan2(double y, double x) {
+        return Math.toDegrees(Math.atan2(y, x));
+    }
+
+    private static double dArcCot(double x) {
+        return Math.toDegrees(Math.atan(1.0 / x));
+    }
+}
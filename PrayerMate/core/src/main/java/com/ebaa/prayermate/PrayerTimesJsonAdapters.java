@@ -0,0 +1,277 @@
+package com.ebaa.prayermate;
+
+import com.google.gson.GsonBuilder;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * فك استجابات Aladhan (وكتابة الجزء المستخدم منها) بـ JsonReader/JsonWriter مباشرة بدون reflection.
+ * الأجزاء الكبيرة التي لا نستخدمها (meta و hijri وباقي الأوقات) تُتخطى
+ * بـ skipValue بدون إنشاء كائنات، والأوقات تُكتب مباشرة كدقائق في int[].
+ * عدم الاعتماد على reflection يسمح بتفعيل R8 بدون قواعد keep للنماذج.
+ */
+public final class PrayerTimesJsonAdapters {
+
+    private PrayerTimesJsonAdapters() {
+    }
+
+    public static GsonBuilder register(GsonBuilder builder) {
+        return builder
+                .registerTypeAdapter(PrayerTimesResponse.Calendar.class, new MonthAdapter().nullSafe())
+                .registerTypeAdapter(PrayerTimesResponse.AnnualCalendar.class, new YearAdapter().nullSafe());
+    }
+
+    static class MonthAdapter extends TypeAdapter<PrayerTimesResponse.Calendar> {
+        @Override
+        public PrayerTimesResponse.Calendar read(JsonReader in) throws IOException {
+            int code = 0;
+            String status = null;
+            List<PrayerTimesResponse.Data> data = null;
+
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "code":
+                        code = in.nextInt();
+                        break;
+                    case "status":
+                        status = in.nextString();
+                        break;
+                    case "data":
+                        if (in.peek() == JsonToken.BEGIN_ARRAY) {
+                            data = readDays(in);
+                        } else {
+                            in.skipValue();
+                        }
+                        break;
+                    default:
+                        in.skipValue();
+                }
+            }
+            in.endObject();
+            return new PrayerTimesResponse.Calendar(code, status, data);
+        }
+
+        // الجزء الذي يقرؤه read فقط من شكل Aladhan، فالنتيجة تُقرأ مرة أخرى بنفس القيم
+        @Override
+        public void write(JsonWriter out, PrayerTimesResponse.Calendar value) throws IOException {
+            out.beginObject();
+            out.name("code").value(value.getCode());
+            out.name("status").value(value.getStatus());
+            out.name("data");
+            writeDays(out, value.getData());
+            out.endObject();
+        }
+    }
+
+    static class YearAdapter extends TypeAdapter<PrayerTimesResponse.AnnualCalendar> {
+        @Override
+        public PrayerTimesResponse.AnnualCalendar read(JsonReader in) throws IOException {
+            int code = 0;
+            String status = null;
+            Map<String, List<PrayerTimesResponse.Data>> data = null;
+
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "code":
+                        code = in.nextInt();
+                        break;
+                    case "status":
+                        status = in.nextString();
+                        break;
+                    case "data":
+                        if (in.peek() == JsonToken.BEGIN_OBJECT) {
+                            data = new LinkedHashMap<>();
+                            in.beginObject();
+                            while (in.hasNext()) {
+                                data.put(in.nextName(), readDays(in));
+                            }
+                            in.endObject();
+                        } else {
+                            in.skipValue();
+                        }
+                        break;
+                    default:
+                        in.skipValue();
+                }
+            }
+            in.endObject();
+            return new PrayerTimesResponse.AnnualCalendar(code, status, data);
+        }
+
+        @Override
+        public void write(JsonWriter out, PrayerTimesResponse.AnnualCalendar value) throws IOException {
+            out.beginObject();
+            out.name("code").value(value.getCode());
+            out.name("status").value(value.getStatus());
+            out.name("data");
+            if (value.getData() == null) {
+                out.nullValue();
+            } else {
+                out.beginObject();
+                for (Map.Entry<String, List<PrayerTimesResponse.Data>> month : value.getData().entrySet()) {
+                    out.name(month.getKey());
+                    writeDays(out, month.getValue());
+                }
+                out.endObject();
+            }
+            out.endObject();
+        }
+    }
+
+    private static List<PrayerTimesResponse.Data> readDays(JsonReader in) throws IOException {
+        List<PrayerTimesResponse.Data> days = new ArrayList<>(31);
+        in.beginArray();
+        while (in.hasNext()) {
+            days.add(readData(in));
+        }
+        in.endArray();
+        return days;
+    }
+
+    private static PrayerTimesResponse.Data readData(JsonReader in) throws IOException {
+        PrayerTimesResponse.Timings timings = null;
+        PrayerTimesResponse.DateInfo date = null;
+
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "timings":
+                    timings = readTimings(in);
+                    break;
+                case "date":
+                    date = readDate(in);
+                    break;
+                default:
+                    // meta وغيرها
+                    in.skipValue();
+            }
+        }
+        in.endObject();
+        return new PrayerTimesResponse.Data(timings, date);
+    }
+
+    private static PrayerTimesResponse.Timings readTimings(JsonReader in) throws IOException {
+        int[] minutes = new int[PrayerTimesCalculator.PRAYER_COUNT];
+
+        in.beginObject();
+        while (in.hasNext()) {
+            int prayer = prayerIndex(in.nextName());
+            if (prayer >= 0) {
+                minutes[prayer] = DayTimings.parseMinutes(in.nextString());
+            } else {
+                in.skipValue();
+            }
+        }
+        in.endObject();
+        return new PrayerTimesResponse.Timings(minutes);
+    }
+
+    private static PrayerTimesResponse.DateInfo readDate(JsonReader in) throws IOException {
+        String readable = null;
+        String timestamp = null;
+        long epochDay = 0;
+
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "readable":
+                    readable = in.nextString();
+                    break;
+                case "timestamp":
+                    timestamp = in.nextString();
+                    break;
+                case "gregorian":
+                    in.beginObject();
+                    while (in.hasNext()) {
+                        if (in.nextName().equals("date")) {
+                            epochDay = DayTimings.parseEpochDay(in.nextString());
+                        } else {
+                            in.skipValue();
+                        }
+                    }
+                    in.endObject();
+                    break;
+                default:
+                    // hijri
+                    in.skipValue();
+            }
+        }
+        in.endObject();
+        return new PrayerTimesResponse.DateInfo(readable, timestamp, epochDay);
+    }
+
+    private static void writeDays(JsonWriter out, List<PrayerTimesResponse.Data> days) throws IOException {
+        if (days == null) {
+            out.nullValue();
+            return;
+        }
+        char[] time = new char[5];
+        out.beginArray();
+        for (PrayerTimesResponse.Data day : days) {
+            writeData(out, day, time);
+        }
+        out.endArray();
+    }
+
+    private static void writeData(JsonWriter out, PrayerTimesResponse.Data data, char[] time) throws IOException {
+        if (data == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginObject();
+        if (data.getTimings() != null) {
+            out.name("timings").beginObject();
+            for (int i = 0; i < PRAYER_KEYS.length; i++) {
+                DayTimings.formatMinutes(data.getTimings().getMinutes(i), time);
+                out.name(PRAYER_KEYS[i]).value(new String(time));
+            }
+            out.endObject();
+        }
+        PrayerTimesResponse.DateInfo date = data.getDate();
+        if (date != null) {
+            out.name("date").beginObject();
+            if (date.getReadable() != null) {
+                out.name("readable").value(date.getReadable());
+            }
+            if (date.getTimestamp() != null) {
+                out.name("timestamp").value(date.getTimestamp());
+            }
+            out.name("gregorian").beginObject();
+            out.name("date").value(DayTimings.formatEpochDay(date.getEpochDay()));
+            out.endObject();
+            out.endObject();
+        }
+        out.endObject();
+    }
+
+    private static final String[] PRAYER_KEYS = {"Fajr", "Sunrise", "Dhuhr", "Asr", "Maghrib", "Isha"};
+
+    private static int prayerIndex(String name) {
+        switch (name) {
+            case "Fajr":
+                return PrayerTimesCalculator.FAJR;
+            case "Sunrise":
+                return PrayerTimesCalculator.SUNRISE;
+            case "Dhuhr":
+                return PrayerTimesCalculator.DHUHR;
+            case "Asr":
+                return PrayerTimesCalculator.ASR;
+            case "Maghrib":
+                return PrayerTimesCalculator.MAGHRIB;
+            case "Isha":
+                return PrayerTimesCalculator.ISHA;
+            default:
+                return -1;
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package com.ebaa.prayermate;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * استجابة Aladhan بعد فك JSON بواسطة PrayerTimesJsonAdapters.
+ * نحتفظ فقط بما يحتاجه التطبيق: الأوقات الست كدقائق وتاريخ اليوم.
+ */
+public class PrayerTimesResponse {
+    private int code;
+
+    private String status;
+
+    private Data data;
+
+    PrayerTimesResponse(int code, String status, Data data) {
+        this.code = code;
+        this.status = status;
+        this.data = data;
+    }
+
+    public int getCode() {
+        return code;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public Data getData() {
+        return data;
+    }
+
+    public static class Data {
+        private Timings timings;
+
+        private DateInfo date;
+
+        Data(Timings timings, DateInfo date) {
+            this.timings = timings;
+            this.date = date;
+        }
+
+        public Timings getTimings() {
+            return timings;
+        }
+
+        public DateInfo getDate() {
+            return date;
+        }
+    }
+
+    /**
+     * الأوقات بالدقائق منذ منتصف الليل مرتبة حسب ثوابت PrayerTimesCalculator
+     */
+    public static class Timings {
+        private final int[] minutes;
+
+        Timings(int[] minutes) {
+            this.minutes = minutes;
+        }
+
+        public int getMinutes(int prayer) {
+            return minutes[prayer];
+        }
+
+        public int[] getMinutes() {
+            return minutes;
+        }
+    }
+
+    public static class DateInfo {
+        private String readable;
+
+        private String timestamp;
+
+        // من gregorian.date
+        private long epochDay;
+
+        DateInfo(String readable, String timestamp, long epochDay) {
+            this.readable = readable;
+            this.timestamp = timestamp;
+            this.epochDay = epochDay;
+        }
+
+        public String getReadable() {
+            return readable;
+        }
+
+        public String getTimestamp() {
+            return timestamp;
+        }
+
+        public long getEpochDay() {
+            return epochDay;
+        }
+    }
+
+    /**
+     * استجابة calendar لشهر كامل: يوم واحد لكل عنصر
+     */
+    public static class Calendar {
+        private int code;
+
+        private String status;
+
+        private List<Data> data;
+
+        Calendar(int code, String status, List<Data> data) {
+            this.code = code;
+            this.status = status;
+            this.data = data;
+        }
+
+        public int getCode() {
+            return code;
+        }
+
+        public String getStatus() {
+            return status;
+        }
+
+        public List<Data> getData() {
+            return data;
+        }
+    }
+
+    /**
+     * استجابة calendar لسنة كاملة (annual=true): رقم الشهر -> أيام الشهر
+     */
+    public static class AnnualCalendar {
+        private int code;
+
+        private String status;
+
+        private Map<String, List<Data>> data;
+
+        AnnualCalendar(int code, String status, Map<String, List<Data>> data) {
+            this.code = code;
+            this.status = status;
+            this.data = data;
+        }
+
+        public int getCode() {
+            return code;
+        }
+
+        public String getStatus() {
+            return status;
+        }
+
+        public Map<String, List<Data>> getData() {
+            return data;
+        }
+    }
+}
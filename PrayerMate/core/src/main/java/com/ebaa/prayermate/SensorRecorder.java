@@ -0,0 +1,80 @@
+package com.ebaa.prayermate;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * تسجيل أحداث المستشعرات كما يستقبلها CompassPipeline في ملف ثنائي مضغوط
+ * حتى يمكن إعادة تشغيلها على JVM (SensorRecording) والحصول على نفس الاتجاهات.
+ *
+ * الصيغة: MAGIC, VERSION, mode ثم أحداث متتالية:
+ * type (byte), accuracy (byte), count (byte), timestamp (long, ns), count × float.
+ * حدث الإعداد (EVENT_CONFIG) يحمل الانحراف المغناطيسي ثم معاملات المعايرة الـ 12،
+ * وحدث المرجع (EVENT_REFERENCE) يحمل الاتجاه الحقيقي إن كان معروفاً.
+ * الكتابة تمر بمخزن في الذاكرة ولا تنشئ كائنات لكل حدث.
+ */
+public class SensorRecorder implements Closeable {
+
+    public static final int MAGIC = 0x434D5052; // "CMPR"
+    public static final int VERSION = 1;
+    public static final String FILE_EXTENSION = ".cmpr";
+
+    public static final int EVENT_CONFIG = 0;
+    public static final int EVENT_REFERENCE = 255;
+
+    private final DataOutputStream out;
+
+    public SensorRecorder(OutputStream output, int mode) throws IOException {
+        out = new DataOutputStream(new BufferedOutputStream(output, 64 * 1024));
+        out.writeInt(MAGIC);
+        out.writeByte(VERSION);
+        out.writeByte(mode);
+    }
+
+    /**
+     * حدث مستشعر بنفس المعاملات الممررة إلى CompassPipeline.onSensorEvent
+     */
+    public void write(int type, long timestampNanos, float[] values, int accuracy) throws IOException {
+        out.writeByte(type);
+        out.writeByte(accuracy);
+        out.writeByte(values.length);
+        out.writeLong(timestampNanos);
+        for (float value : values) {
+            out.writeFloat(value);
+        }
+    }
+
+    /**
+     * إعدادات المسار السارية من هذه اللحظة (في البداية وعند كل تغيير)
+     */
+    public void writeConfig(long timestampNanos, float declination, MagnetometerCalibration calibration)
+            throws IOException {
+        out.writeByte(EVENT_CONFIG);
+        out.writeByte(0);
+        out.writeByte(1 + MagnetometerCalibration.PARAMETER_COUNT);
+        out.writeLong(timestampNanos);
+        out.writeFloat(declination);
+        for (float value : calibration.getParameters()) {
+            out.writeFloat(value);
+        }
+    }
+
+    /**
+     * الاتجاه الحقيقي المعروف (درجات من الشمال الحقيقي) لقياس الخطأ عند الإعادة
+     */
+    public void writeReference(long timestampNanos, float heading) throws IOException {
+        out.writeByte(EVENT_REFERENCE);
+        out.writeByte(0);
+        out.writeByte(1);
+        out.writeLong(timestampNanos);
+        out.writeFloat(heading);
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+}
@@ -0,0 +1,111 @@
+package com.ebaa.prayermate;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * قراءة ملف SensorRecorder حدثاً حدثاً وإعادة تشغيله عبر CompassPipeline.
+ * مصفوفة القيم لكل طول تُنشأ مرة واحدة ويعاد استخدامها مع كل حدث.
+ */
+public class SensorRecording implements Closeable {
+
+    private final DataInputStream in;
+    private final int mode;
+
+    private int type;
+    private int accuracy;
+    private long timestamp;
+    private float[] values;
+    private final float[][] valueArrays = new float[256][];
+
+    public SensorRecording(InputStream input) throws IOException {
+        in = new DataInputStream(new BufferedInputStream(input, 64 * 1024));
+        if (in.readInt() != SensorRecorder.MAGIC) {
+            throw new IOException("Invalid sensor recording");
+        }
+        int version = in.readUnsignedByte();
+        if (version != SensorRecorder.VERSION) {
+            throw new IOException("Unsupported sensor recording version " + version);
+        }
+        mode = in.readUnsignedByte();
+    }
+
+    public int getMode() {
+        return mode;
+    }
+
+    /**
+     * الانتقال للحدث التالي
+     *
+     * @return false عند نهاية الملف
+     */
+    public boolean next() throws IOException {
+        int nextType = in.read();
+        if (nextType < 0) return false;
+
+        try {
+            type = nextType;
+            accuracy = in.readUnsignedByte();
+            int count = in.readUnsignedByte();
+            timestamp = in.readLong();
+
+            values = valueArrays[count];
+            if (values == null) {
+                values = new float[count];
+                valueArrays[count] = values;
+            }
+            for (int i = 0; i < count; i++) {
+                values[i] = in.readFloat();
+            }
+        } catch (EOFException e) {
+            // آخر حدث مقطوع (التسجيل توقف فجأة)
+            return false;
+        }
+        return true;
+    }
+
+    public int getType() {
+        return type;
+    }
+
+    public int getAccuracy() {
+        return accuracy;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public float[] getValues() {
+        return values;
+    }
+
+    /**
+     * تطبيق الحدث الحالي على المسار: أحداث الإعداد تغير المعايرة والانحراف،
+     * وأحداث المستشعرات تمرر كما سُجلت.
+     *
+     * @return الاتجاه الناتج أو NaN (أحداث الإعداد والمرجع لا تنتج اتجاهاً)
+     */
+    public float apply(CompassPipeline pipeline) {
+        if (type == SensorRecorder.EVENT_CONFIG) {
+            float[] parameters = new float[MagnetometerCalibration.PARAMETER_COUNT];
+            System.arraycopy(values, 1, parameters, 0, parameters.length);
+            pipeline.setMagneticDeclination(values[0]);
+            pipeline.setCalibration(new MagnetometerCalibration(parameters));
+            return Float.NaN;
+        }
+        if (type == SensorRecorder.EVENT_REFERENCE) {
+            return Float.NaN;
+        }
+        return pipeline.onSensorEvent(type, timestamp, values, accuracy);
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+}
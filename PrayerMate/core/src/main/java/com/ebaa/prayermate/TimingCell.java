@@ -0,0 +1,66 @@
+package com.ebaa.prayermate;
+
+/**
+ * خلية شبكة بحجم 0.1° × 0.1° (حوالي 11 كم) تُعامل كموقع واحد لحساب الأوقات:
+ * 0.1° في خط الطول تغير الأوقات 24 ثانية فقط، وفي خط العرض أقل من ذلك
+ * في المناطق المأهولة، فكل الخلية تشترك في نفس الجدول بفرق أقل من دقيقة.
+ * نفس الخلية هي مفتاح التخزين في TimetableStore.
+ */
+public final class TimingCell {
+
+    public static final int CELLS_PER_DEGREE = 10;
+
+    // مسافة دنيا من الموقع الحالي قبل قبول خلية جديدة، حتى لا يتبدل
+    // الجدول ذهاباً وإياباً عندما يتذبذب الموقع حول حدود خليتين
+    public static final double HYSTERESIS_KM = 2.0;
+
+    private final int latitudeIndex;
+    private final int longitudeIndex;
+
+    private TimingCell(int latitudeIndex, int longitudeIndex) {
+        this.latitudeIndex = latitudeIndex;
+        this.longitudeIndex = longitudeIndex;
+    }
+
+    public static TimingCell of(double latitude, double longitude) {
+        return new TimingCell((int) Math.round(latitude * CELLS_PER_DEGREE),
+                (int) Math.round(longitude * CELLS_PER_DEGREE));
+    }
+
+    /**
+     * هل ينقل الموقع الجديد المستخدم إلى جدول أوقات مختلف عن جدول الموقع الحالي؟
+     * يجب أن يكون في خلية أخرى وأبعد من HYSTERESIS_KM، وإلا فلا حساب ولا طلب شبكة
+     */
+    public static boolean invalidates(double currentLatitude, double currentLongitude,
+                                      double latitude, double longitude) {
+        if (of(currentLatitude, currentLongitude).equals(of(latitude, longitude))) {
+            return false;
+        }
+        return GeoMath.distanceKm(currentLatitude, currentLongitude, latitude, longitude) > HYSTERESIS_KM;
+    }
+
+    /**
+     * المفتاح النصي المخزن في قاعدة البيانات
+     */
+    public String key() {
+        return latitudeIndex + ":" + longitudeIndex;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof TimingCell)) return false;
+        TimingCell other = (TimingCell) o;
+        return latitudeIndex == other.latitudeIndex && longitudeIndex == other.longitudeIndex;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * latitudeIndex + longitudeIndex;
+    }
+
+    @Override
+    public String toString() {
+        return key();
+    }
+}
@@ -0,0 +1,126 @@
+package com.ebaa.prayermate;
+
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * مقارنة بحث شجرة k-d ببحث شامل على ملف المدن الذي يشحنه التطبيق.
+ * الملف يحتوي أسماء مكررة (صور، طرابلس) لذلك تُقارن المسافات وليس الأسماء.
+ */
+public class CityGazetteerTest {
+
+    private static final double EARTH_RADIUS_KM = 6371.0;
+    // دقة float على كرة الوحدة أقل من متر
+    private static final double TOLERANCE_KM = 0.05;
+
+    private final List<String> names = new ArrayList<>();
+    private final List<double[]> points = new ArrayList<>();
+
+    @Test
+    public void nearestMatchesBruteForce() throws IOException {
+        CityGazetteer gazetteer = build();
+        assertEquals(points.size(), gazetteer.size());
+
+        Random random = new Random(42);
+        for (int i = 0; i < 4000; i++) {
+            double latitude, longitude;
+            if (i % 2 == 0) {
+                // نقطة عشوائية موزعة بانتظام على الكرة
+                latitude = Math.toDegrees(Math.asin(2 * random.nextDouble() - 1));
+                longitude = 360 * random.nextDouble() - 180;
+            } else {
+                // نقطة قرب مدينة حيث تكون المدن المرشحة متقاربة
+                double[] city = points.get(random.nextInt(points.size()));
+                latitude = Math.max(-90, Math.min(90, city[0] + random.nextGaussian() * 0.5));
+                longitude = city[1] + random.nextGaussian() * 0.5;
+            }
+
+            double expected = Double.MAX_VALUE;
+            for (double[] city : points) {
+                expected = Math.min(expected, distanceKm(latitude, longitude, city[0], city[1]));
+            }
+
+            String at = latitude + "," + longitude;
+            int nearest = gazetteer.nearest(latitude, longitude, 2 * Math.PI * EARTH_RADIUS_KM);
+            assertTrue(at, nearest >= 0);
+            assertEquals(at, expected, nameDistanceKm(gazetteer.getName(nearest), latitude, longitude), TOLERANCE_KM);
+
+            // الحد الأقصى للمسافة يفصل تماماً عند أقرب مدينة
+            assertTrue(at, gazetteer.nearest(latitude, longitude, expected + TOLERANCE_KM) >= 0);
+            if (expected > TOLERANCE_KM) {
+                assertEquals(at, -1, gazetteer.nearest(latitude, longitude, expected - TOLERANCE_KM));
+            }
+        }
+    }
+
+    @Test
+    public void cityLocationFindsThatCity() throws IOException {
+        CityGazetteer gazetteer = build();
+
+        for (int i = 0; i < points.size(); i++) {
+            double[] city = points.get(i);
+            int nearest = gazetteer.nearest(city[0], city[1], 1);
+            assertTrue(names.get(i), nearest >= 0);
+            assertEquals(names.get(i), 0, nameDistanceKm(gazetteer.getName(nearest), city[0], city[1]), TOLERANCE_KM);
+        }
+    }
+
+    // بناء الفهرس في ملف مؤقت وقراءة المدن نفسها للبحث الشامل
+    private CityGazetteer build() throws IOException {
+        File index = File.createTempFile("cities", ".kdt");
+        index.deleteOnExit();
+        try (InputStream csv = open(); OutputStream out = new FileOutputStream(index)) {
+            CityGazetteer.build(csv, out);
+        }
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(open(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) continue;
+                String[] parts = line.split(",");
+                names.add(parts[0]);
+                points.add(new double[]{Double.parseDouble(parts[1]), Double.parseDouble(parts[2])});
+            }
+        }
+        return CityGazetteer.open(index);
+    }
+
+    private static InputStream open() {
+        InputStream input = CityGazetteerTest.class.getResourceAsStream("/" + CityGazetteer.ASSET_NAME);
+        assertNotNull(CityGazetteer.ASSET_NAME, input);
+        return input;
+    }
+
+    // أقرب مسافة لمدينة بهذا الاسم (قد يتكرر الاسم في أكثر من سطر)
+    private double nameDistanceKm(String name, double latitude, double longitude) {
+        double best = Double.MAX_VALUE;
+        for (int i = 0; i < names.size(); i++) {
+            if (names.get(i).equals(name)) {
+                best = Math.min(best, distanceKm(latitude, longitude, points.get(i)[0], points.get(i)[1]));
+            }
+        }
+        return best;
+    }
+
+    private static double distanceKm(double lat1, double lng1, double lat2, double lng2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLng = Math.toRadians(lng2 - lng1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) * Math.sin(dLng / 2) * Math.sin(dLng / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+}
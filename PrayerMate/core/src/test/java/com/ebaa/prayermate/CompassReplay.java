@@ -0,0 +1,153 @@
+package com.ebaa.prayermate;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+/**
+ * مشغل إعادة تسجيلات SensorRecorder على JVM: يمرر الأحداث عبر CompassPipeline
+ * ويقيس زمن كل حدث، والذاكرة المحجوزة أثناء المعالجة، والخطأ عن الاتجاه المرجعي إن وجد.
+ *
+ * الاستخدام: java CompassReplay trace.cmpr [مجلد ...]
+ */
+public class CompassReplay {
+
+    // الخطأ لا يُحسب في أول ثانيتين من التسجيل (تقارب المرشح)
+    private static final long SETTLE_NANOS = 2000000000L;
+
+    public static class Result {
+        public int events;
+        public int headings;
+        public long allocatedBytes = -1;
+        public int errorSamples;
+        public double maxError;
+        public double sumError;
+        public float finalHeading = Float.NaN;
+        long[] latencies = new long[1024];
+
+        public long latencyPercentile(double percentile) {
+            if (events == 0) return 0;
+            long[] sorted = Arrays.copyOf(latencies, events);
+            Arrays.sort(sorted);
+            return sorted[Math.min(events - 1, (int) (percentile / 100.0 * events))];
+        }
+
+        public double meanError() {
+            return errorSamples == 0 ? Double.NaN : sumError / errorSamples;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("events=%d headings=%d p50=%dns p99=%dns max=%dns allocated=%dB"
+                            + " error(mean=%.2f° max=%.2f° n=%d) final=%.1f°",
+                    events, headings, latencyPercentile(50), latencyPercentile(99), latencyPercentile(100),
+                    allocatedBytes, meanError(), maxError, errorSamples, finalHeading);
+        }
+    }
+
+    /**
+     * إعادة تشغيل تسجيل كامل مرتين: الأولى لتسخين JIT، والثانية للقياس
+     */
+    public static Result run(byte[] trace) throws IOException {
+        replay(trace);
+        return replay(trace);
+    }
+
+    public static Result replay(byte[] trace) throws IOException {
+        Result result = new Result();
+        SensorRecording recording = new SensorRecording(new ByteArrayInputStream(trace));
+        CompassPipeline pipeline = new CompassPipeline(recording.getMode());
+
+        com.sun.management.ThreadMXBean allocations = allocationBean();
+        long threadId = Thread.currentThread().getId();
+        long allocated = 0;
+
+        long firstTimestamp = Long.MIN_VALUE;
+        float reference = Float.NaN;
+
+        try {
+            while (recording.next()) {
+                int type = recording.getType();
+                if (type == SensorRecorder.EVENT_REFERENCE) {
+                    reference = recording.getValues()[0];
+                    continue;
+                }
+                if (type == SensorRecorder.EVENT_CONFIG) {
+                    recording.apply(pipeline);
+                    continue;
+                }
+                if (firstTimestamp == Long.MIN_VALUE) {
+                    firstTimestamp = recording.getTimestamp();
+                }
+                if (result.events == result.latencies.length) {
+                    result.latencies = Arrays.copyOf(result.latencies, result.events * 2);
+                }
+
+                long allocatedBefore = allocations != null ? allocations.getThreadAllocatedBytes(threadId) : 0;
+                long start = System.nanoTime();
+                float heading = recording.apply(pipeline);
+                long elapsed = System.nanoTime() - start;
+                if (allocations != null) {
+                    allocated += allocations.getThreadAllocatedBytes(threadId) - allocatedBefore;
+                }
+
+                result.latencies[result.events++] = elapsed;
+                if (Float.isNaN(heading)) continue;
+
+                result.headings++;
+                result.finalHeading = heading;
+                if (!Float.isNaN(reference) && recording.getTimestamp() - firstTimestamp > SETTLE_NANOS) {
+                    double error = Math.abs(heading - reference);
+                    error = Math.min(error, 360 - error);
+                    result.maxError = Math.max(result.maxError, error);
+                    result.sumError += error;
+                    result.errorSamples++;
+                }
+            }
+        } finally {
+            recording.close();
+        }
+
+        if (allocations != null) {
+            result.allocatedBytes = allocated;
+        }
+        return result;
+    }
+
+    // قياس الذاكرة المحجوزة لكل خيط متاح في HotSpot فقط
+    private static com.sun.management.ThreadMXBean allocationBean() {
+        try {
+            java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+            if (bean instanceof com.sun.management.ThreadMXBean) {
+                com.sun.management.ThreadMXBean hotspot = (com.sun.management.ThreadMXBean) bean;
+                if (hotspot.isThreadAllocatedMemorySupported()) {
+                    hotspot.setThreadAllocatedMemoryEnabled(true);
+                    return hotspot;
+                }
+            }
+        } catch (Throwable e) {
+            // JVM بدون com.sun.management: القياس غير متاح
+        }
+        return null;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.err.println("Usage: CompassReplay <trace.cmpr | directory>...");
+            System.exit(1);
+        }
+        for (String arg : args) {
+            File file = new File(arg);
+            File[] files = file.isDirectory() ? file.listFiles() : new File[]{file};
+            if (files == null) continue;
+            Arrays.sort(files);
+            for (File trace : files) {
+                if (!trace.getName().endsWith(SensorRecorder.FILE_EXTENSION)) continue;
+                System.out.println(trace.getName() + ": " + run(Files.readAllBytes(trace.toPath())));
+            }
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.ebaa.prayermate;
+
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * إعادة تشغيل تسجيلات المستشعرات عبر CompassPipeline على JVM.
+ * التسجيلات الاصطناعية تُولد من دوران معروف فيمكن قياس الخطأ بدقة؛
+ * التسجيلات الحقيقية توضع في src/test/resources/compass-traces.
+ */
+public class CompassReplayTest {
+
+    private static final float DECLINATION = 4.5f;
+
+    @Test
+    public void fusionTraceFollowsTrueHeading() throws IOException {
+        CompassReplay.Result result = CompassReplay.run(syntheticTrace(CompassPipeline.MODE_FUSION, 1));
+
+        assertTrue("fusion: " + result, result.headings > 1000);
+        assertTrue("fusion: " + result, result.errorSamples > 0);
+        assertTrue("max error " + result.maxError, result.maxError < 3.0);
+        assertTrue("mean error " + result.meanError(), result.meanError() < 1.0);
+    }
+
+    @Test
+    public void magneticTraceFollowsTrueHeading() throws IOException {
+        CompassReplay.Result result = CompassReplay.run(syntheticTrace(CompassPipeline.MODE_MAGNETIC, 2));
+
+        assertTrue("magnetic: " + result, result.errorSamples > 0);
+        assertTrue("mean error " + result.meanError(), result.meanError() < 5.0);
+    }
+
+    @Test
+    public void replayIsDeterministic() throws IOException {
+        byte[] trace = syntheticTrace(CompassPipeline.MODE_FUSION, 3);
+        CompassReplay.Result first = CompassReplay.replay(trace);
+        CompassReplay.Result second = CompassReplay.replay(trace);
+
+        assertEquals(first.headings, second.headings);
+        assertEquals(first.finalHeading, second.finalHeading, 0f);
+        assertEquals(first.sumError, second.sumError, 0.0);
+    }
+
+    @Test
+    public void pipelineDoesNotAllocatePerEvent() throws IOException {
+        CompassReplay.Result result = CompassReplay.run(syntheticTrace(CompassPipeline.MODE_FUSION, 4));
+        Assume.assumeTrue("allocation counter unavailable", result.allocatedBytes >= 0);
+
+        assertEquals(0, result.allocatedBytes);
+    }
+
+    @Test
+    public void replaysRecordedCorpus() throws Exception {
+        URL corpus = getClass().getClassLoader().getResource("compass-traces");
+        Assume.assumeNotNull(corpus);
+
+        File[] traces = new File(corpus.toURI()).listFiles((dir, name) -> name.endsWith(SensorRecorder.FILE_EXTENSION));
+        Assume.assumeTrue(traces != null && traces.length > 0);
+
+        for (File trace : traces) {
+            CompassReplay.Result result = CompassReplay.run(Files.readAllBytes(trace.toPath()));
+            assertTrue(trace.getName() + ": " + result, result.events > 0);
+        }
+    }
+
+    /**
+     * تسجيل اصطناعي لمدة 20 ثانية: ميل ثابت، ثم دوران 90° حول المحور الرأسي، ثم إمالة.
+     * الجيروسكوب فيه انحياز وضوضاء، والتسارع والمغناطيس فيهما ضوضاء.
+     * حدث مرجعي بالاتجاه الحقيقي (من الشمال الحقيقي) بعد كل قراءة.
+     */
+    private static byte[] syntheticTrace(int mode, long seed) throws IOException {
+        Random random = new Random(seed);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        SensorRecorder recorder = new SensorRecorder(bytes, mode);
+        recorder.writeConfig(0, DECLINATION, MagnetometerCalibration.IDENTITY);
+
+        // الرباعي الحقيقي من إطار الجهاز إلى الإطار العالمي (شرق، شمال، أعلى)
+        double[] q = {1, 0, 0, 0};
+        rotate(q, 0.3, 0, 0, 1);
+        rotate(q, 0, 0.2, 0, 1);
+        rotate(q, 0, 0, 1.1, 1);
+
+        float[] gyro = new float[3];
+        float[] acceleration = new float[3];
+        float[] field = new float[3];
+        double dt = 0.005;
+        long timestamp = 1000000000L;
+        boolean moving = mode == CompassPipeline.MODE_FUSION;
+
+        for (int i = 0; i < 4000; i++) {
+            double wx = moving && i > 2000 && i < 2300 ? 0.8 : 0;
+            double wz = moving && i > 1000 && i < 1400 ? Math.toRadians(90) : 0;
+            rotate(q, wx, 0, wz, dt);
+            timestamp += (long) (dt * 1e9);
+
+            double[] r = matrix(q);
+            if (mode == CompassPipeline.MODE_FUSION) {
+                gyro[0] = (float) (wx + 0.01 + random.nextGaussian() * 0.01);
+                gyro[1] = (float) (0.005 + random.nextGaussian() * 0.01);
+                gyro[2] = (float) (wz - 0.02 + random.nextGaussian() * 0.01);
+                recorder.write(CompassPipeline.TYPE_GYROSCOPE, timestamp, gyro, CompassPipeline.STATUS_ACCURACY_HIGH);
+            }
+            if (i % 2 == 0) {
+                toDevice(r, 0, 0, 9.81, acceleration, random, 0.05);
+                recorder.write(CompassPipeline.TYPE_ACCELEROMETER, timestamp, acceleration,
+                        CompassPipeline.STATUS_ACCURACY_HIGH);
+                toDevice(r, 0, 22, -40, field, random, 1.0);
+                recorder.write(CompassPipeline.TYPE_MAGNETIC_FIELD, timestamp, field,
+                        CompassPipeline.STATUS_ACCURACY_HIGH);
+            }
+
+            double heading = Math.toDegrees(Math.atan2(r[1], r[4])) + DECLINATION;
+            recorder.writeReference(timestamp, (float) ((heading + 360) % 360));
+        }
+        recorder.close();
+        return bytes.toByteArray();
+    }
+
+    private static void rotate(double[] q, double gx, double gy, double gz, double dt) {
+        double a = q[0], b = q[1], c = q[2], d = q[3];
+        q[0] += 0.5 * dt * (-b * gx - c * gy - d * gz);
+        q[1] += 0.5 * dt * (a * gx + c * gz - d * gy);
+        q[2] += 0.5 * dt * (a * gy - b * gz + d * gx);
+        q[3] += 0.5 * dt * (a * gz + b * gy - c * gx);
+        double norm = Math.sqrt(q[0] * q[0] + q[1] * q[1] + q[2] * q[2] + q[3] * q[3]);
+        for (int i = 0; i < 4; i++) {
+            q[i] /= norm;
+        }
+    }
+
+    private static double[] matrix(double[] q) {
+        double a = q[0], b = q[1], c = q[2], d = q[3];
+        return new double[]{
+                a * a + b * b - c * c - d * d, 2 * (b * c - a * d), 2 * (b * d + a * c),
+                2 * (b * c + a * d), a * a - b * b + c * c - d * d, 2 * (c * d - a * b),
+                2 * (b * d - a * c), 2 * (c * d + a * b), a * a - b * b - c * c + d * d
+        };
+    }
+
+    // متجه من الإطار العالمي إلى إطار الجهاز (Rᵀ · v) مع ضوضاء
+    private static void toDevice(double[] r, double x, double y, double z, float[] out, Random random, double noise) {
+        out[0] = (float) (r[0] * x + r[3] * y + r[6] * z + random.nextGaussian() * noise);
+        out[1] = (float) (r[1] * x + r[4] * y + r[7] * z + random.nextGaussian() * noise);
+        out[2] = (float) (r[2] * x + r[5] * y + r[8] * z + random.nextGaussian() * noise);
+    }
+}
@@ -0,0 +1,62 @@
+package com.ebaa.prayermate;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import static org.junit.Assert.*;
+
+/**
+ * تحديد الدولة من ملف الأصول الذي يشحنه التطبيق (app/src/main/assets)
+ */
+public class CountryLocatorTest {
+
+    private static CountryLocator load() throws IOException {
+        InputStream input = CountryLocatorTest.class.getResourceAsStream("/" + CountryLocator.ASSET_NAME);
+        assertNotNull(CountryLocator.ASSET_NAME, input);
+        return CountryLocator.load(input);
+    }
+
+    @Test
+    public void findsRussiaOnBothSidesOfDateLine() throws IOException {
+        CountryLocator locator = load();
+
+        // مضلع روسيا مخزن بخطوط طول حتى 191، والاستعلام بـ -175 يجب أن يلتف إليه
+        assertEquals("روسيا", locator.findCountry(65, 175));
+        assertEquals("روسيا", locator.findCountry(65, -175));
+        assertEquals("روسيا", locator.findCountry(65, 185));
+    }
+
+    @Test
+    public void findsEveryPartOfMultiPartCountries() throws IOException {
+        CountryLocator locator = load();
+
+        // نقطة داخل كل مضلع من مضلعات الدول المكتوبة في عدة أسطر
+        Object[][] points = {
+                {"عُمان", 23.6, 58.4}, {"عُمان", 26.18, 56.25},
+                {"اليابان", 35.68, 139.69}, {"اليابان", 43.06, 141.35},
+                {"أستراليا", -23.7, 133.88}, {"أستراليا", -42.0, 146.5},
+                {"الولايات المتحدة", 39.1, -94.58}, {"الولايات المتحدة", 64.84, -147.72},
+                {"الولايات المتحدة", 19.6, -155.5},
+                {"كندا", 49.9, -97.14}, {"كندا", 70.0, -72.0}, {"كندا", 74.7, -94.8},
+                {"كندا", 48.95, -55.6},
+                {"إيطاليا", 41.9, 12.5}, {"إيطاليا", 37.57, 14.28}, {"إيطاليا", 40.32, 9.33},
+                {"بريطانيا", 52.48, -1.9}, {"بريطانيا", 54.6, -6.8},
+                {"روسيا", 55.75, 37.6}, {"روسيا", 54.71, 20.51},
+        };
+        for (Object[] point : points) {
+            assertEquals(point[1] + "," + point[2], point[0],
+                    locator.findCountry((Double) point[1], (Double) point[2]));
+        }
+    }
+
+    @Test
+    public void oceanHasNoCountry() throws IOException {
+        CountryLocator locator = load();
+
+        assertNull(locator.findCountry(0, -30));
+        assertNull(locator.findCountry(-40, -150));
+        assertNull(locator.findCountry(Double.NaN, 0));
+    }
+}
@@ -0,0 +1,100 @@
+package com.ebaa.prayermate;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * مقارنة الحساب المحلي بأيام مرجعية لطريقة الهيئة المصرية (Aladhan method=5، school=0).
+ * الفرق المسموح دقيقتان: Aladhan يقرب لأقرب دقيقة ومعادلات موقع الشمس تقريبية.
+ */
+public class PrayerTimesCalculatorTest {
+
+    private static final int TOLERANCE_MINUTES = 2;
+
+    private final PrayerTimesCalculator calculator = PrayerTimesCalculator.egyptian();
+
+    @Test
+    public void cairoWinter() {
+        assertDay(30.0444, 31.2357, 2024, 1, 15, 2,
+                "05:21", "06:52", "12:04", "14:57", "17:17", "18:39");
+    }
+
+    @Test
+    public void cairoSummerTime() {
+        assertDay(30.0444, 31.2357, 2024, 6, 21, 3,
+                "04:08", "05:54", "12:57", "16:32", "19:59", "21:33");
+    }
+
+    @Test
+    public void makkahEquinox() {
+        assertDay(21.4225, 39.8262, 2024, 3, 20, 3,
+                "05:04", "06:25", "12:28", "15:53", "18:32", "19:44");
+    }
+
+    @Test
+    public void londonWinter() {
+        assertDay(51.5074, -0.1278, 2024, 12, 21, 0,
+                "05:50", "08:04", "11:59", "13:38", "15:54", "17:55");
+    }
+
+    /**
+     * الشمس لا تنزل 17.5° تحت الأفق في لندن صيفاً، فالفجر والعشاء من قاعدة الزاوية:
+     * جزء من الليل نسبته الزاوية / 60
+     */
+    @Test
+    public void londonSummerUsesAngleBasedRule() {
+        assertDay(51.5074, -0.1278, 2024, 6, 21, 1,
+                "02:20", "04:43", "13:02", "17:25", "21:22", "23:30");
+    }
+
+    /**
+     * عند خط عرض 60° صيفاً يقع العشاء بعد منتصف الليل: يُخزن بعد 1440 حتى يبقى الترتيب
+     * صحيحاً للبحث الثنائي واللحظة المطلقة في اليوم التالي
+     */
+    @Test
+    public void ishaAfterMidnightAtLatitude60() {
+        assertDay(60.0, 25.0, 2024, 6, 21, 3,
+                "02:16", "03:56", "13:22", "18:04", "22:48", "24:18");
+
+        long epochDay = DayTimings.epochDay(2024, 6, 21);
+        DayTimings day = calculator.computeDay(60.0, 25.0, epochDay, 180);
+        assertTrue(day.getMinutes(PrayerTimesCalculator.ISHA) > 24 * 60);
+        assertEquals(PrayerTimesCalculator.ISHA, day.nextAfter(23 * 60, true));
+        assertEquals(PrayerTimesCalculator.ISHA, day.nextAfter(24 * 60 + 5, true));
+        assertEquals(-1, day.nextAfter(day.getMinutes(PrayerTimesCalculator.ISHA), true));
+
+        long ishaMillis = day.getEpochMillis(PrayerTimesCalculator.ISHA);
+        long nextMidnightUtc = (epochDay + 1) * 24 * 60 * 60_000L - 180 * 60_000L;
+        assertTrue(ishaMillis > nextMidnightUtc);
+        assertTrue(ishaMillis > day.getEpochMillis(PrayerTimesCalculator.MAGHRIB));
+
+        char[] formatted = new char[5];
+        DayTimings.formatMinutes(day.getMinutes(PrayerTimesCalculator.ISHA), formatted);
+        assertEquals("00", new String(formatted, 0, 2));
+    }
+
+    @Test
+    public void timingsAreOrdered() {
+        double[] latitudes = {30.0444, 51.5074, 60.0};
+        for (double latitude : latitudes) {
+            for (int month = 1; month <= 12; month++) {
+                DayTimings day = calculator.computeDay(latitude, 25.0, DayTimings.epochDay(2024, month, 21), 120);
+                for (int i = 1; i < day.size(); i++) {
+                    assertTrue(latitude + " month " + month + " prayer " + i,
+                            day.getMinutes(i) > day.getMinutes(i - 1));
+                }
+            }
+        }
+    }
+
+    private void assertDay(double latitude, double longitude, int year, int month, int day,
+                           int utcOffsetHours, String... expected) {
+        DayTimings timings = calculator.computeDay(latitude, longitude,
+                DayTimings.epochDay(year, month, day), utcOffsetHours * 60);
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals(year + "-" + month + "-" + day + " prayer " + i,
+                    DayTimings.parseMinutes(expected[i]), timings.getMinutes(i), TOLERANCE_MINUTES);
+        }
+    }
+}
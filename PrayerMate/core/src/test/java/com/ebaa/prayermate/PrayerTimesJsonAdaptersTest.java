@@ -0,0 +1,103 @@
+package com.ebaa.prayermate;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class PrayerTimesJsonAdaptersTest {
+
+    // يوم من استجابة calendar لـ Aladhan مختصر، مع hijri و meta اللذين يُتخطيان
+    private static final String CALENDAR = "{\"code\":200,\"status\":\"OK\",\"data\":["
+            + "{\"timings\":{\"Fajr\":\"05:21 (EET)\",\"Sunrise\":\"06:52 (EET)\",\"Dhuhr\":\"12:04 (EET)\","
+            + "\"Asr\":\"14:57 (EET)\",\"Sunset\":\"17:17 (EET)\",\"Maghrib\":\"17:17 (EET)\",\"Isha\":\"18:39 (EET)\","
+            + "\"Imsak\":\"05:11 (EET)\",\"Midnight\":\"23:05 (EET)\"},"
+            + "\"date\":{\"readable\":\"15 Jan 2024\",\"timestamp\":\"1705305661\","
+            + "\"gregorian\":{\"date\":\"15-01-2024\",\"format\":\"DD-MM-YYYY\"},"
+            + "\"hijri\":{\"date\":\"03-07-1445\"}},"
+            + "\"meta\":{\"latitude\":30.0444,\"method\":{\"id\":5}}},"
+            + "{\"timings\":{\"Fajr\":\"02:16\",\"Sunrise\":\"03:56\",\"Dhuhr\":\"13:22\",\"Asr\":\"18:04\","
+            + "\"Maghrib\":\"22:48\",\"Isha\":\"00:18\"},"
+            + "\"date\":{\"readable\":\"29 Feb 2024\",\"timestamp\":\"1709164800\","
+            + "\"gregorian\":{\"date\":\"29-02-2024\"}}}]}";
+
+    private final Gson gson = PrayerTimesJsonAdapters.register(new GsonBuilder()).create();
+
+    @Test
+    public void readsCalendar() {
+        PrayerTimesResponse.Calendar calendar = gson.fromJson(CALENDAR, PrayerTimesResponse.Calendar.class);
+
+        assertEquals(200, calendar.getCode());
+        assertEquals("OK", calendar.getStatus());
+        assertEquals(2, calendar.getData().size());
+
+        PrayerTimesResponse.Data day = calendar.getData().get(0);
+        assertEquals(DayTimings.epochDay(2024, 1, 15), day.getDate().getEpochDay());
+        assertEquals(5 * 60 + 21, day.getTimings().getMinutes(PrayerTimesCalculator.FAJR));
+        assertEquals(18 * 60 + 39, day.getTimings().getMinutes(PrayerTimesCalculator.ISHA));
+    }
+
+    @Test
+    public void writtenCalendarReadsBackUnchanged() {
+        PrayerTimesResponse.Calendar original = gson.fromJson(CALENDAR, PrayerTimesResponse.Calendar.class);
+        PrayerTimesResponse.Calendar copy = gson.fromJson(gson.toJson(original), PrayerTimesResponse.Calendar.class);
+
+        assertEquals(original.getCode(), copy.getCode());
+        assertEquals(original.getStatus(), copy.getStatus());
+        assertEquals(original.getData().size(), copy.getData().size());
+        for (int i = 0; i < original.getData().size(); i++) {
+            PrayerTimesResponse.Data expected = original.getData().get(i);
+            PrayerTimesResponse.Data actual = copy.getData().get(i);
+            assertEquals(expected.getDate().getEpochDay(), actual.getDate().getEpochDay());
+            assertEquals(expected.getDate().getReadable(), actual.getDate().getReadable());
+            assertEquals(expected.getDate().getTimestamp(), actual.getDate().getTimestamp());
+            for (int prayer = 0; prayer < PrayerTimesCalculator.PRAYER_COUNT; prayer++) {
+                assertEquals("day " + i + " prayer " + prayer,
+                        expected.getTimings().getMinutes(prayer), actual.getTimings().getMinutes(prayer));
+            }
+        }
+    }
+
+    @Test
+    public void annualCalendarReadsBackUnchanged() {
+        String days = CALENDAR.substring(CALENDAR.indexOf('['), CALENDAR.length() - 1);
+        String json = "{\"code\":200,\"status\":\"OK\",\"data\":{\"1\":" + days + ",\"2\":[]}}";
+
+        PrayerTimesResponse.AnnualCalendar original = gson.fromJson(json, PrayerTimesResponse.AnnualCalendar.class);
+        assertEquals(2, original.getData().size());
+        assertEquals(2, original.getData().get("1").size());
+        assertEquals(0, original.getData().get("2").size());
+
+        PrayerTimesResponse.AnnualCalendar copy = gson.fromJson(gson.toJson(original),
+                PrayerTimesResponse.AnnualCalendar.class);
+        assertEquals(original.getData().keySet(), copy.getData().keySet());
+        PrayerTimesResponse.Data expected = original.getData().get("1").get(1);
+        PrayerTimesResponse.Data actual = copy.getData().get("1").get(1);
+        assertEquals(expected.getDate().getEpochDay(), actual.getDate().getEpochDay());
+        assertEquals(expected.getTimings().getMinutes(PrayerTimesCalculator.ISHA),
+                actual.getTimings().getMinutes(PrayerTimesCalculator.ISHA));
+    }
+
+    @Test
+    public void errorResponseHasNoData() {
+        PrayerTimesResponse.Calendar calendar = gson.fromJson(
+                "{\"code\":400,\"status\":\"Bad Request\",\"data\":\"month must be between 1 and 12\"}",
+                PrayerTimesResponse.Calendar.class);
+
+        assertEquals(400, calendar.getCode());
+        assertNull(calendar.getData());
+        assertEquals("{\"code\":400,\"status\":\"Bad Request\",\"data\":null}",
+                gson.newBuilder().serializeNulls().create().toJson(calendar));
+    }
+
+    @Test
+    public void formatEpochDayInvertsParse() {
+        for (long epochDay = DayTimings.epochDay(1999, 12, 1); epochDay < DayTimings.epochDay(2101, 3, 1); epochDay++) {
+            assertEquals(epochDay, DayTimings.parseEpochDay(DayTimings.formatEpochDay(epochDay)));
+        }
+        assertEquals("29-02-2024", DayTimings.formatEpochDay(DayTimings.epochDay(2024, 2, 29)));
+        assertEquals("01-01-1970", DayTimings.formatEpochDay(0));
+    }
+}
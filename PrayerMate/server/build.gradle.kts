@@ -0,0 +1,26 @@
+// خادم HTTP بدون واجهة يحسب الأوقات من :core ويخدمها بنفس شكل استجابات Aladhan
+// (timings و calendar) للشاشات والأكشاك بدلاً من أن يتصل كل جهاز بـ Aladhan:
+// ./gradlew :server:run --args="8080"  ← ثم BASE_URL = http://<host>:8080/v1/
+plugins {
+    application
+}
+
+java {
+    // الخيوط الافتراضية (virtual threads) متاحة من Java 21
+    sourceCompatibility = JavaVersion.VERSION_21
+    targetCompatibility = JavaVersion.VERSION_21
+}
+
+application {
+    mainClass.set("com.ebaa.prayermate.PrayerTimesServer")
+}
+
+dependencies {
+    implementation(project(":core"))
+
+    testImplementation(libs.junit)
+}
+
+tasks.withType<JavaCompile>().configureEach {
+    options.encoding = "UTF-8"
+}
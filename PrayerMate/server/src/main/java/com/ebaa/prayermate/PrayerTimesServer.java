@@ -0,0 +1,191 @@
+package com.ebaa.prayermate;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+
+/**
+ * خادم HTTP بدون واجهة يخدم الأوقات بنفس مسارات Aladhan تحت /v1/:
+ * timings?latitude&longitude&date و calendar?latitude&longitude&month&year
+ * و calendar?latitude&longitude&year&annual=true (مع timezonestring اختيارياً).
+ * method و school اختياريان، لكن القيم المقبولة فقط 5 (الهيئة المصرية) و 0 (الشافعي).
+ * كل طلب يعمل على خيط افتراضي (virtual thread) خاص به، والنتائج تأتي
+ * غالباً من ذاكرة PrayerTimesService كبايتات جاهزة.
+ */
+public final class PrayerTimesServer {
+
+    private static final int DEFAULT_PORT = 8080;
+    private static final int BACKLOG = 4096;
+
+    // الأوقات لتاريخ وموقع محددين لا تتغير (نفس ما يفعله ImmutableTimingsInterceptor في التطبيق)
+    private static final String IMMUTABLE = "public, max-age=" + 30 * 24 * 60 * 60;
+    private static final String SHORT_LIVED = "public, max-age=" + 5 * 60;
+
+    private final PrayerTimesService service = new PrayerTimesService();
+    private final HttpServer server;
+
+    public PrayerTimesServer(int port) throws IOException {
+        server = HttpServer.create(new InetSocketAddress(port), BACKLOG);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.createContext("/v1/", this::handle);
+        server.createContext("/stats", this::stats);
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    public void stop() {
+        server.stop(0);
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        PrayerTimesServer server = new PrayerTimesServer(port);
+        server.start();
+        System.out.println("Prayer times server on http://localhost:" + server.getPort() + "/v1/");
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                sendError(exchange, 405, "Method Not Allowed", "only GET is supported");
+                return;
+            }
+
+            String path = exchange.getRequestURI().getPath();
+            Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+            try {
+                double latitude = coordinate(query, "latitude", 90);
+                double longitude = coordinate(query, "longitude", 180);
+                String timezone = query.get("timezonestring");
+                requireValue(query, "method", PrayerTimesService.METHOD_ID);
+                requireValue(query, "school", PrayerTimesService.SCHOOL_ID);
+
+                byte[] body;
+                boolean dated;
+                if (path.equals("/v1/timings")) {
+                    String date = query.get("date");
+                    body = service.timings(latitude, longitude, date, timezone);
+                    dated = date != null;
+                } else if (path.equals("/v1/calendar")) {
+                    int year = integer(query, "year");
+                    if (Boolean.parseBoolean(query.get("annual"))) {
+                        body = service.annualCalendar(latitude, longitude, year, timezone);
+                    } else {
+                        body = service.calendar(latitude, longitude, year, integer(query, "month"), timezone);
+                    }
+                    dated = true;
+                } else {
+                    sendError(exchange, 404, "Not Found", "unknown endpoint " + path);
+                    return;
+                }
+
+                exchange.getResponseHeaders().set("Cache-Control", dated ? IMMUTABLE : SHORT_LIVED);
+                send(exchange, 200, body);
+            } catch (IllegalArgumentException | DateTimeParseException e) {
+                // NumberFormatException فرع من IllegalArgumentException
+                sendError(exchange, 400, "Bad Request", e.getMessage());
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+
+    private void stats(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            ShardedLruCache<?, ?> cache = service.getCache();
+            String json = "{\"entries\":" + cache.size()
+                    + ",\"bytes\":" + cache.weight()
+                    + ",\"hits\":" + cache.getHitCount()
+                    + ",\"misses\":" + cache.getMissCount() + "}";
+            exchange.getResponseHeaders().set("Cache-Control", "no-store");
+            send(exchange, 200, json.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    private static void send(HttpExchange exchange, int status, byte[] body) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    /**
+     * نفس شكل أخطاء Aladhan: data نص وليس كائناً، والتطبيق يتخطاه
+     */
+    private static void sendError(HttpExchange exchange, int code, String status, String message) throws IOException {
+        String json = "{\"code\":" + code + ",\"status\":\"" + status + "\",\"data\":\""
+                + escape(message) + "\"}";
+        exchange.getResponseHeaders().set("Cache-Control", "no-store");
+        send(exchange, code, json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String escape(String text) {
+        if (text == null) return "";
+        StringBuilder out = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '"' || c == '\\') {
+                out.append('\\').append(c);
+            } else if (c >= 0x20) {
+                out.append(c);
+            }
+        }
+        return out.toString();
+    }
+
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> query = new HashMap<>();
+        if (rawQuery == null) return query;
+        for (String pair : rawQuery.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq > 0) {
+                query.put(URLDecoder.decode(pair.substring(0, eq), StandardCharsets.UTF_8),
+                        URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8));
+            }
+        }
+        return query;
+    }
+
+    private static double coordinate(Map<String, String> query, String name, double limit) {
+        String value = query.get(name);
+        if (value == null) {
+            throw new IllegalArgumentException(name + " is required");
+        }
+        double degrees = Double.parseDouble(value);
+        if (!(Math.abs(degrees) <= limit)) {
+            throw new IllegalArgumentException(name + " is out of range");
+        }
+        return degrees;
+    }
+
+    // الخادم يحسب بطريقة واحدة فقط، فطلب طريقة أخرى خطأ وليس نتيجة مختلفة بصمت
+    private static void requireValue(Map<String, String> query, String name, int supported) {
+        if (query.containsKey(name) && integer(query, name) != supported) {
+            throw new IllegalArgumentException("only " + name + "=" + supported + " is supported");
+        }
+    }
+
+    private static int integer(Map<String, String> query, String name) {
+        String value = query.get(name);
+        if (value == null) {
+            throw new IllegalArgumentException(name + " is required");
+        }
+        return Integer.parseInt(value);
+    }
+}
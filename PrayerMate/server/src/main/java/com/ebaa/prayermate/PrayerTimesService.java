@@ -0,0 +1,153 @@
+package com.ebaa.prayermate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+
+/**
+ * حساب الأوقات وترميزها JSON بنفس شكل استجابات Aladhan التي يقرؤها
+ * PrayerTimesJsonAdapters في :core (code و status و data.timings و data.date).
+ * الإحداثيات تُقرّب لخلية 0.01° (حوالي 1 كم، والفرق في الأوقات أقل من 3 ثوانٍ)
+ * والنتيجة تُخزن كبايتات جاهزة للإرسال، فالطلب المتكرر لا يحسب ولا يرمّز شيئاً.
+ */
+final class PrayerTimesService {
+
+    static final int CELLS_PER_DEGREE = 100;
+
+    private static final int SHARDS = 64;
+    // الحد بالبايتات وليس بعدد النتائج: سنة كاملة حوالي 96 KB وشهر حوالي 8 KB ويوم أقل من 400 بايت
+    private static final long MAX_BYTES = 64L * 1024 * 1024;
+
+    private static final String METHOD_NAME = "Egyptian General Authority of Survey";
+    // رقم نفس الطريقة والمذهب (الشافعي) في Aladhan
+    static final int METHOD_ID = 5;
+    static final int SCHOOL_ID = 0;
+
+    private static final DateTimeFormatter READABLE = DateTimeFormatter.ofPattern("dd MMM yyyy", Locale.US);
+    private static final DateTimeFormatter GREGORIAN = DateTimeFormatter.ofPattern("dd-MM-yyyy", Locale.US);
+
+    private static final String[] PRAYER_KEYS = {"Fajr", "Sunrise", "Dhuhr", "Asr", "Maghrib", "Isha"};
+
+    private static final char TIMINGS = 'D';
+    private static final char MONTH = 'M';
+    private static final char YEAR = 'Y';
+
+    /**
+     * مفتاح الذاكرة: نوع الطلب، خلية الإحداثيات، الفترة (يوم أو شهر أو سنة) والمنطقة الزمنية
+     */
+    private record Key(char kind, int latCell, int lngCell, long period, ZoneId zone) {
+    }
+
+    private final PrayerTimesCalculator calculator = PrayerTimesCalculator.egyptian();
+    private final ShardedLruCache<Key, byte[]> cache = new ShardedLruCache<>(SHARDS, MAX_BYTES, body -> body.length);
+
+    /**
+     * أوقات يوم واحد. date بصيغة dd-MM-yyyy أو null لليوم الحالي في تلك المنطقة
+     */
+    byte[] timings(double latitude, double longitude, String date, String timezone) {
+        ZoneId zone = resolveZone(timezone, longitude);
+        LocalDate day = date != null ? LocalDate.parse(date, GREGORIAN) : LocalDate.now(zone);
+        return cache.get(new Key(TIMINGS, cell(latitude), cell(longitude), day.toEpochDay(), zone), this::encode);
+    }
+
+    byte[] calendar(double latitude, double longitude, int year, int month, String timezone) {
+        if (month < 1 || month > 12) {
+            throw new IllegalArgumentException("month must be between 1 and 12");
+        }
+        ZoneId zone = resolveZone(timezone, longitude);
+        return cache.get(new Key(MONTH, cell(latitude), cell(longitude), year * 12L + month - 1, zone), this::encode);
+    }
+
+    byte[] annualCalendar(double latitude, double longitude, int year, String timezone) {
+        ZoneId zone = resolveZone(timezone, longitude);
+        return cache.get(new Key(YEAR, cell(latitude), cell(longitude), year, zone), this::encode);
+    }
+
+    ShardedLruCache<?, ?> getCache() {
+        return cache;
+    }
+
+    static int cell(double degrees) {
+        return (int) Math.round(degrees * CELLS_PER_DEGREE);
+    }
+
+    /**
+     * المنطقة الزمنية المطلوبة بالاسم (مثل Africa/Cairo) وإلا فرق ثابت
+     * من خط الطول (ساعة لكل 15°) كما يفعل Aladhan عند غياب timezonestring
+     */
+    private static ZoneId resolveZone(String timezone, double longitude) {
+        if (timezone != null && !timezone.isEmpty()) {
+            try {
+                return ZoneId.of(timezone);
+            } catch (DateTimeException e) {
+                throw new IllegalArgumentException("unknown timezone " + timezone);
+            }
+        }
+        return ZoneOffset.ofHours((int) Math.round(longitude / 15.0));
+    }
+
+    private byte[] encode(Key key) {
+        StringBuilder json = new StringBuilder(key.kind() == YEAR ? 96 * 1024 : 512);
+        json.append("{\"code\":200,\"status\":\"OK\",\"data\":");
+        switch (key.kind()) {
+            case TIMINGS:
+                appendDay(json, key, LocalDate.ofEpochDay(key.period()));
+                break;
+            case MONTH:
+                appendMonth(json, key, (int) (key.period() / 12), (int) (key.period() % 12) + 1);
+                break;
+            default:
+                json.append('{');
+                for (int month = 1; month <= 12; month++) {
+                    if (month > 1) json.append(',');
+                    json.append('"').append(month).append("\":");
+                    appendMonth(json, key, (int) key.period(), month);
+                }
+                json.append('}');
+        }
+        json.append('}');
+        return json.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private void appendMonth(StringBuilder json, Key key, int year, int month) {
+        LocalDate first = LocalDate.of(year, month, 1);
+        json.append('[');
+        for (int i = 0; i < first.lengthOfMonth(); i++) {
+            if (i > 0) json.append(',');
+            appendDay(json, key, first.plusDays(i));
+        }
+        json.append(']');
+    }
+
+    private void appendDay(StringBuilder json, Key key, LocalDate date) {
+        double latitude = (double) key.latCell() / CELLS_PER_DEGREE;
+        double longitude = (double) key.lngCell() / CELLS_PER_DEGREE;
+        long epochDay = date.toEpochDay();
+        // فرق التوقيت في منتصف ذلك اليوم حتى يُراعى التوقيت الصيفي
+        Instant noon = Instant.ofEpochSecond(epochDay * 86_400L + 43_200L);
+        int offsetMinutes = key.zone().getRules().getOffset(noon).getTotalSeconds() / 60;
+
+        DayTimings day = calculator.computeDay(latitude, longitude, epochDay, offsetMinutes);
+
+        char[] time = new char[5];
+        json.append("{\"timings\":{");
+        for (int i = 0; i < PRAYER_KEYS.length; i++) {
+            if (i > 0) json.append(',');
+            DayTimings.formatMinutes(day.getMinutes(i), time);
+            json.append('"').append(PRAYER_KEYS[i]).append("\":\"").append(time).append('"');
+        }
+        json.append("},\"date\":{\"readable\":\"").append(READABLE.format(date))
+                .append("\",\"timestamp\":\"").append(epochDay * 86_400L)
+                .append("\",\"gregorian\":{\"date\":\"").append(GREGORIAN.format(date))
+                .append("\"}},\"meta\":{\"latitude\":").append(latitude)
+                .append(",\"longitude\":").append(longitude)
+                .append(",\"timezone\":\"").append(key.zone().getId())
+                .append("\",\"method\":{\"id\":").append(METHOD_ID)
+                .append(",\"name\":\"").append(METHOD_NAME).append("\"}}}");
+    }
+}
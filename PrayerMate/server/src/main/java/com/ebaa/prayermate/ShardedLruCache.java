@@ -0,0 +1,122 @@
+package com.ebaa.prayermate;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+/**
+ * ذاكرة LRU مقسمة إلى أجزاء (shards) لكل منها قفل مستقل، حتى لا تتنافس
+ * آلاف الخيوط الافتراضية على قفل واحد. الجزء يُختار من hash المفتاح،
+ * وكل جزء LinkedHashMap بترتيب الوصول يحذف الأقدم عندما يتجاوز مجموع
+ * أوزان قيمه (البايتات في PrayerTimesService) نصيبه من الحد الكلي.
+ */
+final class ShardedLruCache<K, V> {
+
+    private final Shard<K, V>[] shards;
+    private final int mask;
+    private final ToIntFunction<? super V> weigher;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    ShardedLruCache(int shardCount, long maxWeight, ToIntFunction<? super V> weigher) {
+        // عدد الأجزاء قوة للعدد 2 لاختيار الجزء بعملية AND بدلاً من القسمة
+        int count = Integer.highestOneBit(Math.max(1, shardCount));
+        shards = new Shard[count];
+        long perShard = Math.max(1, maxWeight / count);
+        for (int i = 0; i < count; i++) {
+            shards[i] = new Shard<>(perShard);
+        }
+        mask = count - 1;
+        this.weigher = weigher;
+    }
+
+    /**
+     * القيمة المخزنة أو حسابها وتخزينها. الحساب يتم خارج القفل، فقد يحسب
+     * خيطان نفس المفتاح في نفس اللحظة وهذا مقبول لأن النتيجة متطابقة
+     */
+    V get(K key, Function<K, V> loader) {
+        Shard<K, V> shard = shardFor(key);
+        V value;
+        synchronized (shard) {
+            value = shard.entries.get(key);
+        }
+        if (value != null) {
+            hits.increment();
+            return value;
+        }
+
+        misses.increment();
+        value = loader.apply(key);
+        synchronized (shard) {
+            V existing = shard.entries.putIfAbsent(key, value);
+            if (existing != null) {
+                return existing;
+            }
+            shard.weight += weigher.applyAsInt(value);
+            shard.evict(weigher);
+            return value;
+        }
+    }
+
+    long getHitCount() {
+        return hits.sum();
+    }
+
+    long getMissCount() {
+        return misses.sum();
+    }
+
+    int size() {
+        int size = 0;
+        for (Shard<K, V> shard : shards) {
+            synchronized (shard) {
+                size += shard.entries.size();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * مجموع أوزان القيم المخزنة
+     */
+    long weight() {
+        long weight = 0;
+        for (Shard<K, V> shard : shards) {
+            synchronized (shard) {
+                weight += shard.weight;
+            }
+        }
+        return weight;
+    }
+
+    private Shard<K, V> shardFor(K key) {
+        int h = key.hashCode();
+        // نشر البتات العليا على السفلى لأن القناع يأخذ البتات السفلى فقط
+        h ^= h >>> 16;
+        return shards[h & mask];
+    }
+
+    private static final class Shard<K, V> {
+        final LinkedHashMap<K, V> entries = new LinkedHashMap<>(16, 0.75f, true);
+        final long maxWeight;
+        long weight;
+
+        Shard(long maxWeight) {
+            this.maxWeight = maxWeight;
+        }
+
+        // حذف الأقدم استخداماً حتى يعود الوزن تحت الحد، مع إبقاء آخر قيمة حتى لو تجاوزته وحدها
+        void evict(ToIntFunction<? super V> weigher) {
+            Iterator<Map.Entry<K, V>> eldest = entries.entrySet().iterator();
+            while (weight > maxWeight && entries.size() > 1) {
+                weight -= weigher.applyAsInt(eldest.next().getValue());
+                eldest.remove();
+            }
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.ebaa.prayermate;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.*;
+
+/**
+ * استجابات الخادم يجب أن يقرأها التطبيق بنفس PrayerTimesJsonAdapters التي يقرأ بها Aladhan
+ */
+public class PrayerTimesServiceTest {
+
+    private final PrayerTimesService service = new PrayerTimesService();
+    private final Gson gson = PrayerTimesJsonAdapters.register(new GsonBuilder()).create();
+    private final PrayerTimesCalculator calculator = PrayerTimesCalculator.egyptian();
+
+    @Test
+    public void calendarParsesWithAppAdapters() {
+        assertCalendar(30.0444, 31.2357, 2024, 2, "Africa/Cairo", 29, 120);
+    }
+
+    /**
+     * العشاء بعد منتصف الليل يُرسل بساعة اليوم التالي كما يفعل Aladhan
+     */
+    @Test
+    public void calendarAtLatitude60ParsesWithAppAdapters() {
+        assertCalendar(60.0, 25.0, 2024, 6, "Europe/Helsinki", 30, 180);
+    }
+
+    @Test
+    public void annualCalendarParsesWithAppAdapters() {
+        byte[] body = service.annualCalendar(30.0444, 31.2357, 2024, "Africa/Cairo");
+        PrayerTimesResponse.AnnualCalendar calendar = gson.fromJson(
+                new String(body, StandardCharsets.UTF_8), PrayerTimesResponse.AnnualCalendar.class);
+
+        assertEquals(200, calendar.getCode());
+        assertEquals(12, calendar.getData().size());
+        int days = 0;
+        for (int month = 1; month <= 12; month++) {
+            days += calendar.getData().get(Integer.toString(month)).size();
+        }
+        assertEquals(366, days);
+        assertEquals(DayTimings.epochDay(2024, 12, 31),
+                calendar.getData().get("12").get(30).getDate().getEpochDay());
+    }
+
+    private void assertCalendar(double latitude, double longitude, int year, int month, String timezone,
+                                int days, int utcOffsetMinutes) {
+        byte[] body = service.calendar(latitude, longitude, year, month, timezone);
+        PrayerTimesResponse.Calendar calendar = gson.fromJson(
+                new String(body, StandardCharsets.UTF_8), PrayerTimesResponse.Calendar.class);
+
+        assertEquals(200, calendar.getCode());
+        assertEquals("OK", calendar.getStatus());
+        assertEquals(days, calendar.getData().size());
+
+        // الخادم يحسب لمركز خلية 0.01°
+        double cellLatitude = (double) PrayerTimesService.cell(latitude) / PrayerTimesService.CELLS_PER_DEGREE;
+        double cellLongitude = (double) PrayerTimesService.cell(longitude) / PrayerTimesService.CELLS_PER_DEGREE;
+        long first = DayTimings.epochDay(year, month, 1);
+        for (int i = 0; i < days; i++) {
+            PrayerTimesResponse.Data day = calendar.getData().get(i);
+            assertEquals(first + i, day.getDate().getEpochDay());
+
+            DayTimings expected = calculator.computeDay(cellLatitude, cellLongitude, first + i, utcOffsetMinutes);
+            for (int prayer = 0; prayer < PrayerTimesCalculator.PRAYER_COUNT; prayer++) {
+                assertEquals("day " + (i + 1) + " prayer " + prayer,
+                        expected.getMinutes(prayer) % (24 * 60), day.getTimings().getMinutes(prayer));
+            }
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.ebaa.prayermate;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ShardedLruCacheTest {
+
+    @Test
+    public void evictsByWeightNotCount() {
+        ShardedLruCache<Integer, byte[]> cache = new ShardedLruCache<>(1, 100, value -> value.length);
+        for (int key = 0; key < 4; key++) {
+            cache.get(key, k -> new byte[40]);
+        }
+
+        assertEquals(2, cache.size());
+        assertEquals(80, cache.weight());
+    }
+
+    @Test
+    public void evictsLeastRecentlyUsed() {
+        ShardedLruCache<Integer, byte[]> cache = new ShardedLruCache<>(1, 100, value -> value.length);
+        cache.get(1, k -> new byte[40]);
+        cache.get(2, k -> new byte[40]);
+        cache.get(1, k -> new byte[40]);
+        // 2 هو الأقدم استخداماً فيُحذف عند إضافة 3
+        cache.get(3, k -> new byte[40]);
+
+        assertEquals(1, cache.getHitCount());
+        cache.get(1, k -> new byte[40]);
+        assertEquals(2, cache.getHitCount());
+        cache.get(2, k -> new byte[40]);
+        assertEquals(4, cache.getMissCount());
+    }
+
+    @Test
+    public void keepsSingleValueLargerThanLimit() {
+        ShardedLruCache<Integer, byte[]> cache = new ShardedLruCache<>(1, 100, value -> value.length);
+        cache.get(1, k -> new byte[40]);
+        cache.get(2, k -> new byte[500]);
+
+        assertEquals(1, cache.size());
+        assertEquals(500, cache.weight());
+    }
+}
@@ -21,3 +21,6 @@ dependencyResolutionManagement {
 
 rootProject.name = "Prayer Mate"
 include(":app")
+include(":core")
+include(":benchmarks")
+include(":server")